@@ -0,0 +1,52 @@
+package com.example.demo.Config;
+
+import com.example.demo.Dtos.NoteDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to write a page of 1000 notes with Boot's default mapper and with the one JacksonConfig
+ * builds; JacksonConfigTest checks the sizes and formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonBenchmark {
+
+    private List<NoteDto> notes;
+    private ObjectMapper before;
+    private ObjectMapper after;
+
+    @Setup
+    public void setUp() {
+        notes = JacksonConfigTest.fixture();
+        before = JacksonConfigTest.bootDefaultMapper();
+        after = JacksonConfigTest.configuredMapper();
+    }
+
+    @Benchmark
+    public byte[] bootDefaultMapper() throws JsonProcessingException {
+        return before.writeValueAsBytes(notes);
+    }
+
+    @Benchmark
+    public byte[] configuredMapper() throws JsonProcessingException {
+        return after.writeValueAsBytes(notes);
+    }
+}
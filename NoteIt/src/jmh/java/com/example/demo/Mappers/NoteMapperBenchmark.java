@@ -0,0 +1,70 @@
+package com.example.demo.Mappers;
+
+import com.example.demo.Dtos.NoteDto;
+import com.example.demo.Entities.Note;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to map a list of notes to DTOs with ModelMapper, as NoteService did before, and with
+ * {@link NoteMapper}. Add {@code -prof gc} to the JMH arguments for allocations per op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoteMapperBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int notes;
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final NoteMapper noteMapper = new NoteMapper();
+    private List<Note> page;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 9, 30);
+        page = new ArrayList<>(notes);
+        for (int i = 0; i < notes; i++) {
+            Note note = new Note();
+            note.setId("%024x".formatted(i));
+            note.setTitle("Meeting notes " + i);
+            note.setContent("Discussed the roadmap and action items for item " + i + ".");
+            note.setUserId("42");
+            note.setCreatedAt(base.plusMinutes(i));
+            note.setUpdatedAt(base.plusMinutes(i).plusSeconds(37));
+            note.setCategory(i % 3 == 0 ? "work" : "personal");
+            note.setVersion((long) i % 5);
+            note.setSeq((long) i + 1);
+            page.add(note);
+        }
+    }
+
+    @Benchmark
+    public List<NoteDto> modelMapper() {
+        return page.stream().map(note -> modelMapper.map(note, NoteDto.class)).toList();
+    }
+
+    @Benchmark
+    public List<NoteDto> noteMapper() {
+        return page.stream().map(noteMapper::toDto).toList();
+    }
+}
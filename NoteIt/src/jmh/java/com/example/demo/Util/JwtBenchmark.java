@@ -0,0 +1,81 @@
+package com.example.demo.Util;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput with keys decoded on every call, as JwtService and TokenValidation
+ * did before, against {@link JwtKeyRegistry}'s decoded keys and shared parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "6f1d2c3b4a5968778695a4b3c2d1e0f11f2e3d4c5b6a79880716253443526170";
+
+    private JwtKeyRegistry registry;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        registry = new JwtKeyRegistry();
+        ReflectionTestUtils.setField(registry, "jwtSecretKey", SECRET);
+        ReflectionTestUtils.setField(registry, "keysFile", "");
+        registry.init();
+        token = registry.sign(claims());
+    }
+
+    @Benchmark
+    public String signDecodingEachTime() {
+        return claims().signWith(decode(SECRET)).compact();
+    }
+
+    @Benchmark
+    public String signWithRegistry() {
+        return registry.sign(claims());
+    }
+
+    @Benchmark
+    public Object verifyDecodingEachTime() {
+        return Jwts.parser().verifyWith(decode(SECRET)).build().parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Object verifyWithRegistry() {
+        return registry.parser().parseSignedClaims(token).getPayload();
+    }
+
+    private static io.jsonwebtoken.JwtBuilder claims() {
+        return Jwts.builder()
+                .subject("42")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 3_600_000));
+    }
+
+    private static SecretKey decode(String hex) {
+        byte[] data = new byte[hex.length() / 2];
+        for (int i = 0; i < hex.length(); i += 2) {
+            data[i / 2] = (byte) ((Character.digit(hex.charAt(i), 16) << 4) + Character.digit(hex.charAt(i + 1), 16));
+        }
+        return Keys.hmacShaKeyFor(data);
+    }
+}
@@ -6,6 +6,7 @@ import com.mongodb.ServerApi;
 import com.mongodb.ServerApiVersion;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -20,11 +21,20 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
     @Value("${spring.data.mongodb.database}")
     private String databaseName;
     
+    @Autowired
+    private MongoQueryRecorder mongoQueryRecorder;
+    
     @Override
     protected String getDatabaseName() {
         return databaseName;
     }
     
+    // Creates the indexes declared on the entities at startup; createIndex is idempotent
+    @Override
+    protected boolean autoIndexCreation() {
+        return true;
+    }
+    
     @Override
     @Bean
     public MongoClient mongoClient() {
@@ -35,6 +45,7 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
         MongoClientSettings settings = MongoClientSettings.builder()
                 .applyConnectionString(new ConnectionString(connectionString))
                 .serverApi(serverApi)
+                .addCommandListener(mongoQueryRecorder)
                 .build();
                 
         return MongoClients.create(settings);
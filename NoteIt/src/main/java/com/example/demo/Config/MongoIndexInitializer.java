@@ -0,0 +1,206 @@
+package com.example.demo.Config;
+
+import com.example.demo.Entities.Note;
+import com.example.demo.Repo.mongo.NoteRepository;
+import com.example.demo.Repo.mongo.NoteRepositoryCustom;
+import com.example.demo.Util.NoteCursor;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Creates the indexes that cannot be declared on the entity, then calls every
+ * {@link NoteRepository} method once for a user with no notes, records the commands it sends and
+ * asks Mongo to explain them, reporting the ones that would scan the whole collection. Runs once
+ * all singletons exist and before the web server starts, so no request sees a missing index.
+ * createIndex is a no-op when an identical index already exists, so this is safe to run on every
+ * start. {@code mongo.index.verify} picks warn, fail or off for the check.
+ */
+@Component
+@Slf4j
+public class MongoIndexInitializer implements SmartInitializingSingleton {
+
+    private static final String NOTES = "notes";
+    private static final String PROBE_USER = "explain-probe";
+
+    // $text queries can only run on the text index, so there is nothing to verify
+    private static final Set<String> UNCHECKED = Set.of("searchText");
+    // Commands that carry a filter and can be explained; getMore, killCursors and the like cannot
+    private static final Set<String> EXPLAINABLE = Set.of("find", "aggregate", "count", "distinct", "findAndModify", "update", "delete");
+    // Fields the driver adds to every command ($db, session, API version, concerns) are not part of
+    // the query, and explain rejects some of them on the inner command
+    private static final Set<String> DRIVER_FIELDS = Set.of("lsid", "txnNumber", "apiVersion", "apiStrict",
+            "apiDeprecationErrors", "readConcern", "writeConcern");
+
+    private final MongoTemplate mongoTemplate;
+    private final NoteRepository noteRepository;
+    private final MongoQueryRecorder queryRecorder;
+    private final String verifyMode;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate,
+                                 NoteRepository noteRepository,
+                                 MongoQueryRecorder queryRecorder,
+                                 @Value("${mongo.index.verify:warn}") String verifyMode) {
+        this.mongoTemplate = mongoTemplate;
+        this.noteRepository = noteRepository;
+        this.queryRecorder = queryRecorder;
+        this.verifyMode = verifyMode;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        createIndexes();
+        if (!"off".equalsIgnoreCase(verifyMode)) {
+            verifyQueryPlans();
+        }
+    }
+
+    private void createIndexes() {
+        try {
+            // userId prefix keeps each search inside one user's notes; title matches outrank content matches
+            mongoTemplate.getCollection(NOTES).createIndex(
+                    Indexes.compoundIndex(Indexes.ascending("userId"), Indexes.text("title"), Indexes.text("content")),
+                    new IndexOptions()
+                            .name("notes_text")
+                            .defaultLanguage("english")
+                            .weights(new Document("title", 5).append("content", 1)));
+            log.info("Mongo text index on notes is in place");
+        } catch (Exception e) {
+            log.error("Failed to create Mongo indexes: {}", e.getMessage(), e);
+        }
+    }
+
+    private void verifyQueryPlans() {
+        Map<String, Consumer<NoteRepository>> probes = noteQueryProbes();
+        List<String> problems = new ArrayList<>();
+
+        // A repository method without a probe would silently escape the check
+        Stream.of(NoteRepository.class, NoteRepositoryCustom.class)
+                .flatMap(type -> Arrays.stream(type.getDeclaredMethods()))
+                .map(Method::getName)
+                .filter(name -> !probes.containsKey(name) && !UNCHECKED.contains(name))
+                .distinct()
+                .forEach(name -> problems.add(name + ": no probe registered for explain"));
+
+        probes.forEach((name, probe) -> {
+            try {
+                List<BsonDocument> commands = queryRecorder.record(() -> probe.accept(noteRepository));
+                for (BsonDocument command : commands) {
+                    if (!EXPLAINABLE.contains(command.getFirstKey())) {
+                        continue;
+                    }
+                    Document plan = mongoTemplate.getDb().runCommand(new BsonDocument("explain", explainable(command))
+                            .append("verbosity", new BsonString("queryPlanner")));
+                    if (winningPlanContains(plan, "COLLSCAN")) {
+                        problems.add(name + ": COLLSCAN for " + command.toJson());
+                    }
+                }
+            } catch (Exception e) {
+                problems.add(name + ": explain failed: " + e.getMessage());
+            }
+        });
+
+        if (problems.isEmpty()) {
+            log.info("All {} note repository queries are index-backed", probes.size());
+            return;
+        }
+        problems.forEach(problem -> log.warn("Query plan check: {}", problem));
+        if ("fail".equalsIgnoreCase(verifyMode)) {
+            throw new IllegalStateException("Unindexed Mongo queries: " + problems);
+        }
+    }
+
+    // One call per repository method, for a user and note that do not exist, so reads come back
+    // empty and the conditional update matches nothing. Paged methods also run from a cursor,
+    // which adds the keyset clause to their filter.
+    private static Map<String, Consumer<NoteRepository>> noteQueryProbes() {
+        String probeId = new ObjectId().toHexString();
+        NoteCursor probeCursor = new NoteCursor(LocalDateTime.now(), probeId);
+
+        Map<String, Consumer<NoteRepository>> probes = new LinkedHashMap<>();
+        probes.put("findByUserId", repo -> repo.findByUserId(PROBE_USER));
+        probes.put("countByUserId", repo -> repo.countByUserId(PROBE_USER));
+        probes.put("findByUserIdAndIsArchived", repo -> repo.findByUserIdAndIsArchived(PROBE_USER, false));
+        probes.put("findByUserIdAndCategory", repo -> repo.findByUserIdAndCategory(PROBE_USER, "probe"));
+        probes.put("findTitlesByUserId", repo -> repo.findTitlesByUserId(PROBE_USER));
+        probes.put("findPage", repo -> {
+            repo.findPage(PROBE_USER, null, 1);
+            repo.findPage(PROBE_USER, probeCursor, 1);
+        });
+        probes.put("findSummaryPage", repo -> {
+            repo.findSummaryPage(PROBE_USER, null, 1);
+            repo.findSummaryPage(PROBE_USER, probeCursor, 1);
+        });
+        probes.put("findChangedSince", repo -> repo.findChangedSince(PROBE_USER, 0L, 1));
+        probes.put("findListStamp", repo -> repo.findListStamp(PROBE_USER));
+        probes.put("findContentById", repo -> repo.findContentById(probeId));
+        probes.put("findStampById", repo -> repo.findStampById(probeId));
+        probes.put("updateIfVersion", repo -> {
+            repo.updateIfVersion(probeId, 0L, new Update().set("title", "probe"));
+            repo.updateIfVersion(probeId, 1L, new Update().set("title", "probe"));
+        });
+        probes.put("findRawByUserId", repo -> repo.findRawByUserId(PROBE_USER, probeId).close());
+        probes.put("streamByUserId", repo -> {
+            try (Stream<Note> notes = repo.streamByUserId(PROBE_USER, probeId)) {
+                notes.findFirst();
+            }
+        });
+        return probes;
+    }
+
+    private static BsonDocument explainable(BsonDocument command) {
+        BsonDocument query = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !DRIVER_FIELDS.contains(key)) {
+                query.append(key, value);
+            }
+        });
+        return query;
+    }
+
+    // Plans the optimizer rejected may scan; only the chosen ones matter, wherever explain nests them
+    private static boolean winningPlanContains(Object node, String stage) {
+        if (node instanceof Document doc) {
+            return doc.entrySet().stream().anyMatch(entry -> entry.getKey().equals("winningPlan")
+                    ? containsStage(entry.getValue(), stage)
+                    : winningPlanContains(entry.getValue(), stage));
+        }
+        if (node instanceof List<?> list) {
+            return list.stream().anyMatch(value -> winningPlanContains(value, stage));
+        }
+        return false;
+    }
+
+    private static boolean containsStage(Object node, String stage) {
+        if (node instanceof Document doc) {
+            if (stage.equals(doc.get("stage"))) {
+                return true;
+            }
+            return doc.values().stream().anyMatch(value -> containsStage(value, stage));
+        }
+        if (node instanceof List<?> list) {
+            return list.stream().anyMatch(value -> containsStage(value, stage));
+        }
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.Config;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the commands the Mongo driver sends from the current thread while {@link #record} runs,
+ * so {@link MongoIndexInitializer} can explain the queries the repositories really issue. Outside a
+ * recording the listener only checks a thread-local. Registered on the client in {@link MongoConfig}.
+ */
+@Component
+public class MongoQueryRecorder implements CommandListener {
+
+    private final ThreadLocal<List<BsonDocument>> recording = new ThreadLocal<>();
+
+    // The sync driver reports a command on the thread that runs it
+    public List<BsonDocument> record(Runnable action) {
+        List<BsonDocument> commands = new ArrayList<>();
+        recording.set(commands);
+        try {
+            action.run();
+        } finally {
+            recording.remove();
+        }
+        return commands;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        List<BsonDocument> commands = recording.get();
+        if (commands != null) {
+            // The event's document is backed by the outgoing buffer, which is reused once it is sent
+            commands.add(event.getCommand().clone());
+        }
+    }
+}
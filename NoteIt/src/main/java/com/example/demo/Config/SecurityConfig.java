@@ -3,6 +3,7 @@ package com.example.demo.Config;
 import com.example.demo.Filter.JwtAuthFilter;
 import com.example.demo.Repo.jpa.AuthRepo;
 import com.example.demo.Services.UserService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -44,6 +45,9 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Streaming responses (export, SSE, raw lists) finish on an async dispatch. The request was
+                        // authorized on its original dispatch, and JwtAuthFilter does not run again for this one
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(publicRoutes).permitAll()
                         .anyRequest().authenticated()
                 )
@@ -68,6 +72,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userService::loadUserByUsername);
         authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userService::updatePassword);
         return authProvider;
     }
 
@@ -78,7 +83,7 @@ public class SecurityConfig {
             "http://localhost:*", 
             "https://note-repo1*.vercel.app"
         ));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("Origin", "Content-Type", "Accept", "Authorization", "X-Requested-With"));
         configuration.setAllowCredentials(true);
         
@@ -1,15 +1,35 @@
 package com.example.demo.Controllers;
 
+import com.example.demo.Dtos.NoteChangesDto;
+import com.example.demo.Dtos.NoteDeltaDto;
 import com.example.demo.Dtos.NoteDto;
+import com.example.demo.Dtos.NotePageDto;
+import com.example.demo.Dtos.NotePatchDto;
+import com.example.demo.Dtos.NoteSearchHitDto;
+import com.example.demo.Dtos.NoteVersionDto;
+import com.example.demo.Dtos.NoteSuggestionDto;
+import com.example.demo.Exception.ResourceNotFoundException;
+import com.example.demo.Exception.ServiceBusyException;
+import com.example.demo.Services.NoteChangeFeed;
 import com.example.demo.Services.NoteService;
+import com.example.demo.Util.ResourceVersion;
+import com.example.demo.Util.VerifiedToken;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/notes")
@@ -18,6 +38,9 @@ public class NoteController {
     
     @Autowired
     private NoteService noteService;
+
+    @Autowired
+    private NoteChangeFeed noteChangeFeed;
     
     // Create a new note
     @PostMapping
@@ -32,8 +55,16 @@ public class NoteController {
     
     // Get all notes for a user
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<NoteDto>> getAllNotesByUserId(@PathVariable String userId) {
+    public ResponseEntity<?> getAllNotesByUserId(@PathVariable String userId, WebRequest request) {
         try {
+            Optional<ResourceVersion> version = noteService.getNotesVersion(userId);
+            if (version.isPresent() && request.checkNotModified(version.get().etag(), version.get().lastModified())) {
+                return null; // 304 is already set on the response
+            }
+            if (noteService.isRawReadEnabled()) {
+                StreamingResponseBody body = out -> noteService.writeNotesJson(userId, out);
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+            }
             List<NoteDto> notes = noteService.getAllNotesByUserId(userId);
             return new ResponseEntity<>(notes, HttpStatus.OK);
         } catch (Exception e) {
@@ -41,10 +72,88 @@ public class NoteController {
         }
     }
     
+    // Get one page of a user's notes; view=summary returns titles and snippets only
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<NotePageDto<?>> getNotesPage(@PathVariable String userId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "50") int limit,
+                                                      @RequestParam(defaultValue = "full") String view) {
+        try {
+            NotePageDto<?> page = "summary".equals(view)
+                    ? noteService.getNoteSummariesPage(userId, cursor, limit)
+                    : noteService.getNotesPage(userId, cursor, limit);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    // Offline sync: notes changed and deleted after seq since; repeat with latestSeq while hasMore
+    @GetMapping("/user/{userId}/changes")
+    public ResponseEntity<NoteChangesDto> getChanges(@PathVariable String userId,
+                                                     @RequestParam(defaultValue = "0") long since,
+                                                     @RequestParam(defaultValue = "200") int limit) {
+        try {
+            NoteChangesDto changes = noteService.getChangesSince(userId, since, limit);
+            return new ResponseEntity<>(changes, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    // Stream all notes of a user as NDJSON; pass the last exported id as ?after= to resume
+    @GetMapping("/user/{userId}/export")
+    public ResponseEntity<StreamingResponseBody> exportNotes(@PathVariable String userId,
+                                                             @RequestParam(required = false) String after,
+                                                             @RequestParam(defaultValue = "false") boolean gzip) {
+        if (after != null && !ObjectId.isValid(after)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192);
+                noteService.exportNotes(userId, after, gzipOut);
+                gzipOut.finish();
+            } else {
+                noteService.exportNotes(userId, after, out);
+            }
+        };
+        String filename = gzip ? "notes.ndjson.gz" : "notes.ndjson";
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+    
+    // Live change feed for one user; send Last-Event-ID on reconnect to receive what was missed
+    @GetMapping(value = "/user/{userId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> noteEvents(@PathVariable String userId,
+                                                 @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                                 @RequestAttribute(value = VerifiedToken.REQUEST_ATTRIBUTE, required = false) VerifiedToken caller) {
+        if (!noteChangeFeed.isEnabled()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        // The feed reports every change to the user's notes, so only their owner may follow it
+        if (caller == null || !caller.isValid() || !userId.equals(String.valueOf(caller.userId()))) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(noteChangeFeed.subscribe(userId, lastEventId));
+    }
+    
     // Get note by ID
     @GetMapping("/{id}")
-    public ResponseEntity<NoteDto> getNoteById(@PathVariable String id) {
+    public ResponseEntity<NoteDto> getNoteById(@PathVariable String id, WebRequest request) {
         try {
+            // Compared against a version/updatedAt projection, so a 304 never loads the content
+            Optional<ResourceVersion> version = noteService.getNoteVersion(id);
+            if (version.isPresent() && request.checkNotModified(version.get().etag(), version.get().lastModified())) {
+                return null;
+            }
             Optional<NoteDto> note = noteService.getNoteById(id);
             if (note.isPresent()) {
                 return new ResponseEntity<>(note.get(), HttpStatus.OK);
@@ -62,6 +171,8 @@ public class NoteController {
         try {
             NoteDto updatedNote = noteService.updateNote(id, noteDto);
             return new ResponseEntity<>(updatedNote, HttpStatus.OK);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         } catch (Exception e) {
@@ -69,6 +180,56 @@ public class NoteController {
         }
     }
     
+    // Partially update a note; 409 when it changed since the client read the given version
+    @PatchMapping("/{id}")
+    public ResponseEntity<NoteDto> patchNote(@PathVariable String id, @Valid @RequestBody NotePatchDto patch) {
+        try {
+            NoteDto updatedNote = noteService.patchNote(id, patch);
+            return new ResponseEntity<>(updatedNote, HttpStatus.OK);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        } catch (ResourceNotFoundException e) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    // Apply content ops against a version; 409 means the client must rebase on the latest note
+    @PostMapping("/{id}/delta")
+    public ResponseEntity<NoteVersionDto> applyDelta(@PathVariable String id, @Valid @RequestBody NoteDeltaDto delta) {
+        try {
+            NoteVersionDto version = noteService.applyDelta(id, delta);
+            return new ResponseEntity<>(version, HttpStatus.OK);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        } catch (ResourceNotFoundException e) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    // Editor autosave: buffered and coalesced, so it acknowledges receipt with the version the edit will land as
+    @PutMapping("/{id}/autosave")
+    public ResponseEntity<NoteVersionDto> autosaveNote(@PathVariable String id, @RequestBody NoteDto noteDto) {
+        if (!ObjectId.isValid(id) || (noteDto.getTitle() == null && noteDto.getContent() == null)
+                || (noteDto.getTitle() != null && noteDto.getTitle().length() > 200)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return new ResponseEntity<>(noteService.autosaveNote(id, noteDto), HttpStatus.ACCEPTED);
+        } catch (ResourceNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (ServiceBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
     // Delete note
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteNote(@PathVariable String id) {
@@ -84,12 +245,37 @@ public class NoteController {
     
     // Search notes
     @GetMapping("/user/{userId}/search")
-    public ResponseEntity<List<NoteDto>> searchNotes(@PathVariable String userId, @RequestParam String q) {
+    public ResponseEntity<List<NoteDto>> searchNotes(@PathVariable String userId, @RequestParam String q,
+                                                     @RequestParam(defaultValue = "20") int limit) {
         try {
-            List<NoteDto> notes = noteService.searchNotes(userId, q);
+            List<NoteDto> notes = noteService.searchNotes(userId, q, limit);
             return new ResponseEntity<>(notes, HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    // Search-as-you-type completions over titles and categories
+    @GetMapping("/user/{userId}/suggest")
+    public ResponseEntity<List<NoteSuggestionDto>> suggestNotes(@PathVariable String userId, @RequestParam String prefix,
+                                                                @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<NoteSuggestionDto> suggestions = noteService.suggestNotes(userId, prefix, limit);
+            return new ResponseEntity<>(suggestions, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Search notes, returning ranked hits with highlighted snippets
+    @GetMapping("/user/{userId}/search/hits")
+    public ResponseEntity<List<NoteSearchHitDto>> searchNoteHits(@PathVariable String userId, @RequestParam String q,
+                                                                 @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<NoteSearchHitDto> hits = noteService.searchNoteHits(userId, q, limit);
+            return new ResponseEntity<>(hits, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 }
\ No newline at end of file
@@ -5,9 +5,11 @@ import com.example.demo.Dtos.ProfileDTO;
 import com.example.demo.Entities.Profile;
 import com.example.demo.Services.ProfileService;
 import com.example.demo.Services.UserService;
+import com.example.demo.Util.ResourceVersion;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import java.util.List;
 import java.util.Map;
@@ -20,8 +22,12 @@ public class ProfileController {
     private final UserService userService;
 
     @GetMapping("/{userId}")
-    public ResponseEntity<ApiResponse> getProfile(@PathVariable Long userId) {
+    public ResponseEntity<ApiResponse> getProfile(@PathVariable Long userId, WebRequest request) {
         ProfileDTO profile = profileService.getProfile(userId);
+        ResourceVersion version = profileService.getProfileVersion(profile);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null; // 304 is already set on the response
+        }
         return ResponseEntity.ok(new ApiResponse(true, "Profile fetched successfully", profile));
     }
 
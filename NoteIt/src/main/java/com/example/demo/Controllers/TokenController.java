@@ -1,9 +1,11 @@
 package com.example.demo.Controllers;
 
 import com.example.demo.Dtos.LoginResponseDto;
-import com.example.demo.Services.AuthServiceImpl;
 import com.example.demo.Services.RefreshTokenService;
 import com.example.demo.Services.JwtService;
+import com.example.demo.Services.TokenRefreshCoordinator;
+import com.example.demo.Util.TokenValidation;
+import com.example.demo.Util.VerifiedToken;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -17,7 +19,8 @@ public class TokenController {
 
     private final RefreshTokenService refreshTokenService;
     private final JwtService jwtService;
-    private final AuthServiceImpl authService;
+    private final TokenRefreshCoordinator tokenRefreshCoordinator;
+    private final TokenValidation tokenValidation;
 
     @PostMapping("/refresh")
     public ResponseEntity<LoginResponseDto> refreshToken(@RequestHeader("Authorization") String refreshToken) {
@@ -44,7 +47,7 @@ public class TokenController {
         try {
             // Remove "Bearer " prefix if present
             String accessToken = token.startsWith("Bearer ") ? token.substring(7) : token;
-            boolean isValid = jwtService.validateToken(accessToken);
+            boolean isValid = tokenValidation.verify(accessToken).isValid();
             return ResponseEntity.ok(isValid);
         } catch (Exception e) {
             log.error("Error validating token: {}", e.getMessage());
@@ -57,8 +60,11 @@ public class TokenController {
         try {
             // Remove "Bearer " prefix if present
             String accessToken = token.startsWith("Bearer ") ? token.substring(7) : token;
-            var user = jwtService.getUserFromToken(accessToken);
-            return ResponseEntity.ok(new UserInfo(user.getId().toString(), user.getEmail()));
+            VerifiedToken verified = tokenValidation.verify(accessToken);
+            if (!verified.isValid()) {
+                return ResponseEntity.status(401).build();
+            }
+            return ResponseEntity.ok(new UserInfo(verified.userId().toString(), verified.email()));
         } catch (Exception e) {
             log.error("Error getting user info: {}", e.getMessage());
             return ResponseEntity.status(401).build();
@@ -75,7 +81,7 @@ public class TokenController {
             String refreshTokenValue = refreshToken.startsWith("Bearer ") ? refreshToken.substring(7) : refreshToken;
 
             // Validate access token
-            boolean isAccessTokenValid = jwtService.validateToken(accessTokenValue);
+            boolean isAccessTokenValid = tokenValidation.verify(accessTokenValue).isValid();
             
             // Validate refresh token
             boolean isRefreshTokenValid = refreshTokenService.findByToken(refreshTokenValue)
@@ -101,7 +107,7 @@ public class TokenController {
     public ResponseEntity<String> refreshAT(@PathVariable Long userId) {
         try {
             log.info("Attempting to refresh access token for user: {}", userId);
-            String result = authService.refreshAT(userId);
+            String result = tokenRefreshCoordinator.refresh(userId);
             log.info("Successfully refreshed token for user: {}", userId);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
@@ -0,0 +1,24 @@
+package com.example.demo.Dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+// One entry of the per-user change feed. Ids and counters only: clients fetch or delta-sync the
+// body themselves, so the replay buffer and the fan-out stay small however large notes get.
+// version and seq are null for deletes.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteChangeEventDto {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private Type type;
+
+    private String noteId;
+
+    private Long version;
+
+    private Long seq;
+}
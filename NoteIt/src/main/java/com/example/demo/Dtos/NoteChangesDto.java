@@ -0,0 +1,22 @@
+package com.example.demo.Dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+// Everything that changed after the requested seq; pass latestSeq as the next since while hasMore
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteChangesDto {
+
+    private List<NoteDto> notes;
+
+    private List<String> deletedIds;
+
+    private long latestSeq;
+
+    private boolean hasMore;
+}
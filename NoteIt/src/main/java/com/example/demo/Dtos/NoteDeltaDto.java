@@ -0,0 +1,39 @@
+package com.example.demo.Dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+// Content edits made against baseVersion; ops apply in order, each to the result of the previous one
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteDeltaDto {
+
+    @NotNull(message = "Base version is required")
+    private Long baseVersion;
+
+    @NotEmpty(message = "At least one op is required")
+    private List<@Valid Op> ops;
+
+    // Replace deleteCount chars at position with insert; positions count UTF-16 code units like JS strings
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Op {
+
+        @Min(value = 0, message = "Position must not be negative")
+        private int position;
+
+        @Min(value = 0, message = "Delete count must not be negative")
+        private int deleteCount;
+
+        private String insert;
+    }
+}
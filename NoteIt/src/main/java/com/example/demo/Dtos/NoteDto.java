@@ -31,4 +31,8 @@ public class NoteDto {
     private String category;
     
     private boolean isArchived;
+
+    private Long version;
+
+    private Long seq;
 }
\ No newline at end of file
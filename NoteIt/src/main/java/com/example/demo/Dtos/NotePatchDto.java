@@ -0,0 +1,27 @@
+package com.example.demo.Dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+// Partial note update: null fields are left as they are; version is the one the client last read
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotePatchDto {
+
+    @Size(max = 200, message = "Title must not exceed 200 characters")
+    private String title;
+
+    private String content;
+
+    private String category;
+
+    private Boolean archived;
+
+    @NotNull(message = "Version is required")
+    private Long version;
+}
@@ -0,0 +1,22 @@
+package com.example.demo.Dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteSearchHitDto {
+    private String id;
+    private String title;
+    // HTML-escaped excerpt with matched words wrapped in <mark>
+    private String snippet;
+    private float score;
+    private String category;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,18 @@
+package com.example.demo.Dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+// One search-as-you-type completion: enough to render the dropdown and open the note
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteSuggestionDto {
+
+    private String id;
+
+    private String title;
+
+    private String category;
+}
@@ -0,0 +1,30 @@
+package com.example.demo.Dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// List-view shape of a note: the full content is replaced by a short snippet computed in Mongo
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteSummaryDto {
+
+    private String id;
+
+    private String title;
+
+    private String snippet;
+
+    private String userId;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    private String category;
+
+    private boolean isArchived;
+}
@@ -0,0 +1,20 @@
+package com.example.demo.Dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Acknowledgement of a content delta: the client already holds the content it just edited
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteVersionDto {
+
+    private String id;
+
+    private Long version;
+
+    private LocalDateTime updatedAt;
+}
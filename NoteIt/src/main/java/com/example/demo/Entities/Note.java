@@ -1,7 +1,11 @@
 package com.example.demo.Entities;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -12,6 +16,16 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "notes")
+@CompoundIndexes({
+        // Listing and keyset paging: equality on userId, then the page order
+        @CompoundIndex(name = "user_updated", def = "{'userId': 1, 'updatedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "user_archived_updated", def = "{'userId': 1, 'isArchived': 1, 'updatedAt': -1}"),
+        @CompoundIndex(name = "user_category", def = "{'userId': 1, 'category': 1}"),
+        // Export streams in _id order
+        @CompoundIndex(name = "user_id", def = "{'userId': 1, '_id': 1}"),
+        // Sync: what changed after a given seq
+        @CompoundIndex(name = "user_seq", def = "{'userId': 1, 'seq': 1}")
+})
 public class Note {
     
     @Id
@@ -30,6 +44,14 @@ public class Note {
     private String category;
     
     private boolean isArchived;
+
+    @Version
+    private Long version;
+
+    private Long seq; // owner's change sequence at the last write, see NoteSequence
+
+    @TextScore
+    private Float score; // only populated by text search, never persisted
     
     public Note(String title, String content, String userId) {
         this.title = title;
@@ -0,0 +1,32 @@
+package com.example.demo.Entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Marks a deleted note in the owner's change sequence so offline clients learn about the delete
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "note_tombstones")
+@CompoundIndex(name = "user_seq", def = "{'userId': 1, 'seq': 1}")
+public class NoteTombstone {
+
+    @Id
+    private String id;
+
+    private String noteId;
+
+    private String userId;
+
+    private long seq;
+
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,50 @@
+package com.example.demo.Entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "mail_outbox")
+public class OutboxMail {
+
+    public enum Status {
+        PENDING, // waiting for the poller, possibly after a failed attempt
+        QUEUED,  // claimed by a dispatcher and sitting in its in-memory queue
+        FAILED   // gave up after the maximum number of attempts; text is blanked and the row expires
+    }
+
+    @Id
+    private String id;
+
+    private String to;
+
+    private String subject;
+
+    private String text;
+
+    private Status status;
+
+    private int attempts;
+
+    private Instant nextAttemptAt;
+
+    private Instant claimedAt;
+
+    private Instant createdAt;
+
+    private String lastError;
+
+    // Mongo's TTL monitor deletes the row once this passes; only set on FAILED rows
+    @Indexed(name = "expire_at", expireAfter = "0s")
+    private Instant expireAt;
+}
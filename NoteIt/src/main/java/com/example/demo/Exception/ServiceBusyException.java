@@ -0,0 +1,7 @@
+package com.example.demo.Exception;
+
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -1,11 +1,11 @@
 package com.example.demo.Filter;
 
 import com.example.demo.Entities.User;
-import com.example.demo.Repo.jpa.AuthRepo;
-import com.example.demo.Services.AuthServiceImpl;
 import com.example.demo.Services.JwtService;
+import com.example.demo.Services.TokenRefreshCoordinator;
 import com.example.demo.Services.UserService;
 import com.example.demo.Util.TokenValidation;
+import com.example.demo.Util.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -30,7 +30,6 @@ import java.io.IOException;
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    private final AuthRepo authRepo;
     @Autowired
     @Lazy
     private JwtService jwtService;
@@ -75,14 +74,15 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
             log.info("[JwtAuthFilter] Token found, validating for {} {}", method, path);
 
-            // Check if token is valid and not expired
-            if (tokenValidation.isValid(token) && !tokenValidation.isExpired(token)) {
+            // Verify once and hand the result to the rest of the chain
+            VerifiedToken verified = tokenValidation.verify(token);
+            if (verified.isValid()) {
                 log.info("[JwtAuthFilter] Token valid, proceeding with request");
-                setAuthenticationContext(token, request);
+                setAuthenticationContext(verified, request);
                 filterChain.doFilter(request, response);
             } else {
                 // Token is expired or invalid, try to refresh
-                Long userId = tokenValidation.extractUserId(token);
+                Long userId = verified.userId();
                 if (userId == null) {
                     log.warn("[JwtAuthFilter] Could not extract userId from token");
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -94,8 +94,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 log.info("[JwtAuthFilter] Token expired/invalid, attempting refresh for user {}", userId);
                 
                 try {
-                    AuthServiceImpl authService = applicationContext.getBean(AuthServiceImpl.class);
-                    String newAccessToken = authService.refreshAT(userId);
+                    TokenRefreshCoordinator refreshCoordinator = applicationContext.getBean(TokenRefreshCoordinator.class);
+                    String newAccessToken = refreshCoordinator.refresh(userId);
                     
                     if ("REFRESH_EXPIRED".equals(newAccessToken)) {
                         log.warn("[JwtAuthFilter] Refresh token expired for user {}", userId);
@@ -111,7 +111,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                         response.setHeader("X-New-Access-Token", newAccessToken);
                         
                         // Set authentication context with new token
-                        setAuthenticationContext(newAccessToken, request);
+                        setAuthenticationContext(tokenValidation.verify(newAccessToken), request);
                         filterChain.doFilter(request, response);
                     } else {
                         log.warn("[JwtAuthFilter] Token refresh failed for user {}", userId);
@@ -156,20 +156,28 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         return null;
     }
 
-    private void setAuthenticationContext(String token, HttpServletRequest request) {
+    private void setAuthenticationContext(VerifiedToken verified, HttpServletRequest request) {
         try {
-            Long userId = jwtService.getUserIdFromToken(token);
+            request.setAttribute(VerifiedToken.REQUEST_ATTRIBUTE, verified);
+            Long userId = verified.userId();
             if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                User user = authRepo.findUserById(userId);
-                if (user != null) {
-                    UsernamePasswordAuthenticationToken authenticationToken =
-                            new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-                    authenticationToken.setDetails(userId); // Set userId as details
-                    SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-                }
+                User user = principalFrom(verified);
+                UsernamePasswordAuthenticationToken authenticationToken =
+                        new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+                authenticationToken.setDetails(userId); // Set userId as details
+                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
             }
         } catch (Exception e) {
             log.error("Error setting authentication context: {}", e.getMessage());
         }
     }
+
+    // Built from the signed claims only, so authenticating a request needs no database round trip
+    private User principalFrom(VerifiedToken verified) {
+        User user = new User();
+        user.setId(verified.userId());
+        user.setUsername(verified.username());
+        user.setEmail(verified.email());
+        return user;
+    }
 }
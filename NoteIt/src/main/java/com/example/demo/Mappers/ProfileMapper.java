@@ -0,0 +1,22 @@
+package com.example.demo.Mappers;
+
+import com.example.demo.Dtos.ProfileDTO;
+import com.example.demo.Entities.Profile;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProfileMapper {
+
+    public ProfileDTO toDto(Profile profile) {
+        return ProfileDTO.builder()
+                .id(profile.getId())
+                .userId(profile.getUser().getId())
+                .displayName(profile.getDisplayName())
+                .avatarUrl(profile.getAvatarUrl())
+                .bio(profile.getBio())
+                .customStatus(profile.getCustomStatus())
+                .createdAt(profile.getCreatedAt())
+                .updatedAt(profile.getUpdatedAt())
+                .build();
+    }
+}
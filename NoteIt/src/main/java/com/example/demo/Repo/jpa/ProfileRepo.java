@@ -12,5 +12,6 @@ public interface ProfileRepo extends JpaRepository<Profile, Long> {
     
     Optional<Profile> findByUserId(Long userId);
     boolean existsByUserId(Long userId);
+    // Filters on the user_id column, no join to users
     List<Profile> findAllByUser_IdIn(List<Long> userIds);
 }
\ No newline at end of file
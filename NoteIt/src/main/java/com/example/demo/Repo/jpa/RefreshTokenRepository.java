@@ -1,7 +1,7 @@
 package com.example.demo.Repo.jpa;
 
 import com.example.demo.Entities.RefreshToken;
-import com.example.demo.Entities.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,7 +11,11 @@ import java.util.Optional;
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     
     Optional<RefreshToken> findByToken(String token);
-    Optional<RefreshToken> findByUser(User user);
+
+    // For the refresh flow, which signs a new token from the user's details
+    @EntityGraph(attributePaths = "user")
+    Optional<RefreshToken> findWithUserByToken(String token);
+
     Optional<RefreshToken> findByUserId(Long userId);
     void deleteByUserId(Long userId);
     boolean existsByToken(String token);
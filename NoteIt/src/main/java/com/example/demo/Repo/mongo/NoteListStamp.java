@@ -0,0 +1,7 @@
+package com.example.demo.Repo.mongo;
+
+import java.time.LocalDateTime;
+
+// How many notes a user has and when the newest change happened; changes whenever the list does
+public record NoteListStamp(long count, LocalDateTime lastUpdatedAt) {
+}
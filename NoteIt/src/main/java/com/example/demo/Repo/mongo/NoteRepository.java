@@ -2,13 +2,12 @@ package com.example.demo.Repo.mongo;
 
 import com.example.demo.Entities.Note;
 import org.springframework.data.mongodb.repository.MongoRepository;
-import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface NoteRepository extends MongoRepository<Note, String> {
+public interface NoteRepository extends MongoRepository<Note, String>, NoteRepositoryCustom {
     
     List<Note> findByUserId(String userId);
     
@@ -16,11 +15,5 @@ public interface NoteRepository extends MongoRepository<Note, String> {
     
     List<Note> findByUserIdAndCategory(String userId, String category);
     
-    @Query("{'userId': ?0, 'title': {$regex: ?1, $options: 'i'}}")
-    List<Note> findByUserIdAndTitleContaining(String userId, String title);
-    
-    @Query("{'userId': ?0, '$or': [{'title': {$regex: ?1, $options: 'i'}}, {'content': {$regex: ?1, $options: 'i'}}]}")
-    List<Note> findByUserIdAndTitleOrContentContaining(String userId, String searchTerm);
-    
     long countByUserId(String userId);
 }
\ No newline at end of file
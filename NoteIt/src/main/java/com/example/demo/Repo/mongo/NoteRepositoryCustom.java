@@ -0,0 +1,51 @@
+package com.example.demo.Repo.mongo;
+
+import com.example.demo.Dtos.NoteSummaryDto;
+import com.example.demo.Entities.Note;
+import com.example.demo.Util.NoteCursor;
+import com.mongodb.client.MongoCursor;
+import org.bson.RawBsonDocument;
+
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface NoteRepositoryCustom {
+
+    // Length of the content excerpt in summaries, in code points
+    int SNIPPET_LENGTH = 160;
+
+    // Keyset pages over (updatedAt desc, id desc); after == null starts from the newest note
+    List<Note> findPage(String userId, NoteCursor after, int limit);
+
+    List<NoteSummaryDto> findSummaryPage(String userId, NoteCursor after, int limit);
+
+    // Top-k notes of one user for a text query, best match first, served by the notes_text index
+    List<Note> searchText(String userId, String searchTerm, int limit);
+
+    // id, title and category only, for building the in-memory suggestion index
+    List<Note> findTitlesByUserId(String userId);
+
+    // Applies update to the note if it is still at expectedVersion (null skips the check) and bumps
+    // the version; returns the updated note, limited to fields when given, or null when nothing matched
+    Note updateIfVersion(String id, Long expectedVersion, Update update, String... fields);
+
+    // Notes of a user written after seq, in seq order
+    List<Note> findChangedSince(String userId, long seq, int limit);
+
+    // Just content, version and owner, for applying a delta
+    Note findContentById(String id);
+
+    // Just version, updatedAt and owner, for conditional GETs and write paths
+    Note findStampById(String id);
+
+    // Count and latest updatedAt of a user's notes, computed from the userId+updatedAt index
+    NoteListStamp findListStamp(String userId);
+
+    // Same documents as streamByUserId, left as undecoded BSON for the raw JSON path; callers must close it
+    MongoCursor<RawBsonDocument> findRawByUserId(String userId, String afterId);
+
+    // Cursor-backed stream in id order, resuming after afterId when given; callers must close it
+    Stream<Note> streamByUserId(String userId, String afterId);
+}
@@ -0,0 +1,159 @@
+package com.example.demo.Repo.mongo;
+
+import com.example.demo.Dtos.NoteSummaryDto;
+import com.example.demo.Entities.Note;
+import com.example.demo.Util.NoteCursor;
+import com.mongodb.client.MongoCursor;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class NoteRepositoryCustomImpl implements NoteRepositoryCustom {
+
+    private static final int EXPORT_BATCH_SIZE = 500;
+    private static final Sort PAGE_ORDER = Sort.by(Sort.Direction.DESC, "updatedAt").and(Sort.by(Sort.Direction.DESC, "_id"));
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Note> findPage(String userId, NoteCursor after, int limit) {
+        Query query = new Query(pageCriteria(userId, after))
+                .with(PAGE_ORDER)
+                .limit(limit);
+        return mongoTemplate.find(query, Note.class);
+    }
+
+    @Override
+    public List<NoteSummaryDto> findSummaryPage(String userId, NoteCursor after, int limit) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(pageCriteria(userId, after)),
+                Aggregation.sort(PAGE_ORDER),
+                Aggregation.limit(limit),
+                Aggregation.project("title", "userId", "createdAt", "updatedAt", "category", "isArchived")
+                        .and(StringOperators.valueOf("content").substringCP(0, SNIPPET_LENGTH)).as("snippet")
+        );
+        return mongoTemplate.aggregate(aggregation, Note.class, NoteSummaryDto.class).getMappedResults();
+    }
+
+    @Override
+    public List<Note> searchText(String userId, String searchTerm, int limit) {
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(searchTerm))
+                .sortByScore()
+                .includeScore()
+                .addCriteria(Criteria.where("userId").is(userId))
+                .limit(limit);
+        return mongoTemplate.find(query, Note.class);
+    }
+
+    @Override
+    public List<Note> findTitlesByUserId(String userId) {
+        Query query = new Query(Criteria.where("userId").is(userId));
+        query.fields().include("title", "category", "userId");
+        return mongoTemplate.find(query, Note.class);
+    }
+
+    @Override
+    public Note updateIfVersion(String id, Long expectedVersion, Update update, String... fields) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (expectedVersion != null) {
+            // Notes written before versioning have no version field and count as version 0
+            criteria = expectedVersion == 0
+                    ? criteria.orOperator(Criteria.where("version").is(0L), Criteria.where("version").exists(false))
+                    : criteria.and("version").is(expectedVersion);
+        }
+        update.currentDate("updatedAt").inc("version", 1);
+        Query query = new Query(criteria);
+        if (fields.length > 0) {
+            query.fields().include(fields);
+        }
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Note.class);
+    }
+
+    @Override
+    public List<Note> findChangedSince(String userId, long seq, int limit) {
+        Query query = new Query(Criteria.where("userId").is(userId).and("seq").gt(seq))
+                .with(Sort.by(Sort.Direction.ASC, "seq"))
+                .limit(limit);
+        return mongoTemplate.find(query, Note.class);
+    }
+
+    @Override
+    public Note findContentById(String id) {
+        Query query = new Query(Criteria.where("_id").is(id));
+        query.fields().include("content", "version", "userId");
+        return mongoTemplate.findOne(query, Note.class);
+    }
+
+    @Override
+    public Note findStampById(String id) {
+        Query query = new Query(Criteria.where("_id").is(id));
+        query.fields().include("version", "updatedAt", "userId");
+        return mongoTemplate.findOne(query, Note.class);
+    }
+
+    @Override
+    public NoteListStamp findListStamp(String userId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").is(userId)),
+                Aggregation.project("updatedAt").andExclude("_id"),
+                Aggregation.group().count().as("count").max("updatedAt").as("lastUpdatedAt")
+        );
+        NoteListStamp stamp = mongoTemplate.aggregate(aggregation, Note.class, NoteListStamp.class).getUniqueMappedResult();
+        return stamp != null ? stamp : new NoteListStamp(0, null);
+    }
+
+    @Override
+    public MongoCursor<RawBsonDocument> findRawByUserId(String userId, String afterId) {
+        Document filter = new Document("userId", userId);
+        if (afterId != null) {
+            filter.append("_id", new Document("$gt", new ObjectId(afterId)));
+        }
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Note.class))
+                .withDocumentClass(RawBsonDocument.class)
+                .find(filter)
+                .sort(new Document("_id", 1))
+                .batchSize(EXPORT_BATCH_SIZE)
+                .iterator();
+    }
+
+    @Override
+    public Stream<Note> streamByUserId(String userId, String afterId) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (afterId != null) {
+            criteria = criteria.and("_id").gt(new ObjectId(afterId));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(EXPORT_BATCH_SIZE);
+        return mongoTemplate.stream(query, Note.class);
+    }
+
+    private Criteria pageCriteria(String userId, NoteCursor after) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (after == null) {
+            return criteria;
+        }
+        if (!ObjectId.isValid(after.id())) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return criteria.orOperator(
+                Criteria.where("updatedAt").lt(after.updatedAt()),
+                Criteria.where("updatedAt").is(after.updatedAt()).and("_id").lt(new ObjectId(after.id()))
+        );
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.Repo.mongo;
+
+import com.example.demo.Entities.NoteTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NoteTombstoneRepository extends MongoRepository<NoteTombstone, String> {
+
+    List<NoteTombstone> findByUserIdAndSeqGreaterThanOrderBySeqAsc(String userId, long seq, Pageable pageable);
+}
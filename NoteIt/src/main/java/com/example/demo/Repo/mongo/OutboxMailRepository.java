@@ -0,0 +1,9 @@
+package com.example.demo.Repo.mongo;
+
+import com.example.demo.Entities.OutboxMail;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxMailRepository extends MongoRepository<OutboxMail, String> {
+}
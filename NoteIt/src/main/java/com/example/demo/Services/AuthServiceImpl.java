@@ -9,6 +9,7 @@ import com.example.demo.Entities.Profile;
 import com.example.demo.Entities.RefreshToken;
 import com.example.demo.Entities.User;
 import com.example.demo.Exception.ResourceNotFoundException;
+import com.example.demo.Exception.ServiceBusyException;
 import com.example.demo.Repo.jpa.AuthRepo;
 import com.example.demo.Repo.jpa.RefreshTokenRepository;
 import com.example.demo.Services.MailService.EmailService;
@@ -58,7 +59,7 @@ public class AuthServiceImpl implements AuthServiceInterface {
             String otp = otpService.generateOtp();
             otpService.saveOTP(signUpReq.getEmail(), otp);
             emailService.sendOtpEmail(signUpReq.getEmail(), otp);
-            log.info("OTP sent to email: {}", signUpReq.getEmail());
+            log.info("OTP queued for email: {}", signUpReq.getEmail());
             return ApiResponse.success("OTP sent to your email.");
         } catch (Exception e) {
             log.error("Error sending OTP to email {}: {}", signUpReq.getEmail(), e.getMessage());
@@ -90,6 +91,8 @@ public class AuthServiceImpl implements AuthServiceInterface {
 
             log.info("User registered successfully with email: {}", email);
             return ApiResponse.success("User registered successfully. Please login to continue.");
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             log.error("User registration failed for email {}: {}", email, e.getMessage());
             throw new ApiExceptions("Registration failed: " + e.getMessage());
@@ -151,6 +154,9 @@ public class AuthServiceImpl implements AuthServiceInterface {
         } catch (BadCredentialsException e) {
             log.warn("Invalid credentials for email: {}", loginRequest.getEmail());
             throw new ApiExceptions("Invalid email or password.");
+        } catch (ServiceBusyException e) {
+            log.warn("Password hashing pool saturated, rejecting login for email: {}", loginRequest.getEmail());
+            throw e;
         } catch (Exception e) {
             log.error("Login failed for email {}: {}", loginRequest.getEmail(), e.getMessage());
             throw new ApiExceptions("Login failed: " + e.getMessage());
@@ -173,8 +179,8 @@ public class AuthServiceImpl implements AuthServiceInterface {
             throw new ApiExceptions("User not found");
         }
 
-        // Look up the refresh token using user
-        RefreshToken getRefreshToken = refreshTokenRepository.findByUser(user)
+        // Look up the refresh token by user id, no user join
+        RefreshToken getRefreshToken = refreshTokenRepository.findByUserId(userId)
                 .orElseThrow(() -> new ApiExceptions("Login again"));
 
         // Validate the refresh token
@@ -198,7 +204,7 @@ public class AuthServiceImpl implements AuthServiceInterface {
         }
         log.info("User found: {} ({})", user.getUsername(), user.getEmail());
 
-        RefreshToken userRefreshToken = refreshTokenRepository.findByUser(user)
+        RefreshToken userRefreshToken = refreshTokenRepository.findByUserId(userId)
                 .orElseThrow(() -> {
                     log.error("No refresh token found for userId: {}", userId);
                     return new ResourceNotFoundException("No refresh token info");
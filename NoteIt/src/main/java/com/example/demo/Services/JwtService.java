@@ -6,16 +6,15 @@ import com.example.demo.Entities.User;
 import com.example.demo.Exception.ResourceNotFoundException;
 import com.example.demo.Repo.jpa.AuthRepo;
 import com.example.demo.Repo.jpa.RefreshTokenRepository;
+import com.example.demo.Util.JwtKeyRegistry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.Optional;
 
@@ -27,29 +26,7 @@ public class JwtService {
     private final AuthRepo authRepo;
     private final RefreshTokenRepository refreshTokenRepository;
     private final RefreshTokenService refreshTokenService;
-
-    @Value("${jwt.secretKey}")
-    private String jwtSecretKey;
-
-    private SecretKey key() {
-        try {
-            byte[] keyBytes = hexStringToByteArray(jwtSecretKey);
-            return Keys.hmacShaKeyFor(keyBytes);
-        } catch (Exception e) {
-            log.error("Error creating secret key: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to create JWT secret key", e);
-        }
-    }
-
-    private byte[] hexStringToByteArray(String s) {
-        int len = s.length();
-        byte[] data = new byte[len / 2];
-        for (int i = 0; i < len; i += 2) {
-            data[i / 2] = (byte) ((Character.digit(s.charAt(i), 16) << 4)
-                    + Character.digit(s.charAt(i + 1), 16));
-        }
-        return data;
-    }
+    private final JwtKeyRegistry jwtKeyRegistry;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
@@ -59,32 +36,26 @@ public class JwtService {
     private long refreshExpiration;
 
     public String generateAccessToken(User user) {
-        return Jwts.builder()
+        return jwtKeyRegistry.sign(Jwts.builder()
                 .subject(user.getId().toString())
                 .claim("username",user.getUsername())
                 .claim("email", user.getEmail())
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(key())
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + jwtExpiration)));
     }
 
     public String generateRefreshToken(User user) {
-        return Jwts.builder()
+        return jwtKeyRegistry.sign(Jwts.builder()
                 .subject(user.getId().toString())
                 .claim("username",user.getUsername())
                 .claim("email", user.getEmail())
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + refreshExpiration))
-                .signWith(key())
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + refreshExpiration)));
     }
 
     public Long getUserIdFromToken(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(key())
-                    .build()
+            Claims claims = jwtKeyRegistry.parser()
                     .parseSignedClaims(token)
                     .getPayload();
 
@@ -97,10 +68,7 @@ public class JwtService {
 //Usefull to validate refresh token and accesstoken
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                .verifyWith(key())
-                .build()
-                .parseSignedClaims(token);
+            jwtKeyRegistry.parser().parseSignedClaims(token);
             return true;
         } catch (Exception e) {
             log.error("Error validating token: {}", e.getMessage());
@@ -110,9 +78,7 @@ public class JwtService {
 
     public User getUserFromToken(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(key())
-                    .build()
+            Claims claims = jwtKeyRegistry.parser()
                     .parseSignedClaims(token)
                     .getPayload();
 
@@ -125,14 +91,12 @@ public class JwtService {
     }
 
     public String generateAccess(String token,Long userId,String userName,String email) {
-        return Jwts.builder()
+        return jwtKeyRegistry.sign(Jwts.builder()
                 .subject(userId.toString())
                 .claim("username",userName)
                 .claim("email", email)
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(key())
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + jwtExpiration)));
     }
 
 }
@@ -2,22 +2,16 @@ package com.example.demo.Services.MailService;
 
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final MailDispatcher mailDispatcher;
 
+    // Returns once the mail is in the outbox; delivery happens on the dispatcher's workers
     public void sendOtpEmail(String toEmail,String otp){
-        SimpleMailMessage message = new SimpleMailMessage();
-
-        message.setTo(toEmail);
-        message.setSubject("Your Otp code");
-        message.setText("Your OTP for signup verification is"+otp);
-        mailSender.send(message);
+        mailDispatcher.enqueue(toEmail, "Your Otp code", "Your OTP for signup verification is"+otp);
     }
 }
@@ -0,0 +1,104 @@
+package com.example.demo.Services.MailService;
+
+import com.example.demo.Advice.ApiExceptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-node OTP store. Expiry is driven by a one-second timing wheel: each entry is
+ * filed under the slot of its deadline, and every tick only looks at the slots that came due,
+ * so expiring OTPs costs nothing per request and never scans the whole map.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final long TICK_MS = 1000;
+
+    private final long ttlMs;
+    private final int maxEntries;
+    private final int maxAttempts;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final List<Set<String>> wheel;
+    private long lastTick;
+
+    public InMemoryOtpStore(@Value("${otp.ttl-seconds:300}") long ttlSeconds,
+                            @Value("${otp.max-entries:100000}") int maxEntries,
+                            @Value("${otp.max-attempts:5}") int maxAttempts) {
+        this.ttlMs = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+        this.maxAttempts = maxAttempts;
+        int slots = (int) (ttlMs / TICK_MS) + 2;
+        this.wheel = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            wheel.add(ConcurrentHashMap.newKeySet());
+        }
+        // The current slot is still open; the first tick after it closes must sweep it
+        this.lastTick = System.currentTimeMillis() / TICK_MS - 1;
+    }
+
+    @Override
+    public void save(String email, String otp) {
+        if (entries.size() >= maxEntries && !entries.containsKey(email)) {
+            log.warn("OTP store full ({} entries), rejecting signup for {}", maxEntries, email);
+            throw new ApiExceptions("Too many pending verifications. Please try again later.");
+        }
+        long expiresAt = System.currentTimeMillis() + ttlMs;
+        entries.put(email, new Entry(otp, expiresAt, new AtomicInteger()));
+        wheel.get(slot(expiresAt / TICK_MS)).add(email);
+    }
+
+    @Override
+    public boolean verify(String email, String otp) {
+        Entry entry = entries.get(email);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(email, entry);
+            return false;
+        }
+        if (entry.attempts().incrementAndGet() > maxAttempts) {
+            entries.remove(email, entry);
+            log.warn("Too many OTP attempts for {}, OTP invalidated", email);
+            return false;
+        }
+        return entry.otp().equals(otp) && entries.remove(email, entry);
+    }
+
+    @Scheduled(fixedRate = TICK_MS)
+    public void tick() {
+        long currentTick = System.currentTimeMillis() / TICK_MS;
+        // Only slots that are fully in the past; a late tick catches up, but never more than one turn
+        long from = Math.max(lastTick + 1, currentTick - wheel.size());
+        for (long t = from; t < currentTick; t++) {
+            long dueTick = t;
+            wheel.get(slot(t)).removeIf(email -> {
+                Entry entry = entries.get(email);
+                if (entry != null && entry.expiresAt() / TICK_MS <= dueTick) {
+                    entries.remove(email, entry);
+                }
+                return true; // expired, consumed, or re-saved into a later slot
+            });
+        }
+        lastTick = currentTick - 1;
+    }
+
+    private int slot(long tick) {
+        return (int) (tick % wheel.size());
+    }
+
+    private record Entry(String otp, long expiresAt, AtomicInteger attempts) {
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.demo.Services.MailService;
+
+import com.example.demo.Entities.OutboxMail;
+import com.example.demo.Repo.mongo.OutboxMailRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbound mail pipeline. Mails are written to the {@code mail_outbox} collection first, so
+ * they survive a restart, then handed to a bounded queue drained by a small worker pool.
+ * Each worker sends what it drained as one batch over a single SMTP connection and
+ * reschedules failures with exponential backoff. A poller picks up overflow, retries and
+ * entries abandoned by a dispatcher that died mid-flight. A claim is a lease: workers renew it
+ * when they take a mail off the queue and skip mails whose lease another dispatcher has taken
+ * over meanwhile, so a mail that waited too long is not sent twice. Sent mails are deleted; mails that
+ * exhaust their attempts keep their metadata for a while but lose the body, which holds the OTP.
+ */
+@Component
+@Slf4j
+public class MailDispatcher {
+
+    private final JavaMailSender mailSender;
+    private final OutboxMailRepository outboxMailRepository;
+    private final MongoTemplate mongoTemplate;
+
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration claimLease;
+    private final Duration failedRetention;
+    private final boolean virtualThreads;
+    private final BlockingQueue<OutboxMail> queue;
+
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    public MailDispatcher(JavaMailSender mailSender,
+                          OutboxMailRepository outboxMailRepository,
+                          MongoTemplate mongoTemplate,
+                          @Value("${mail.dispatch.workers:2}") int workers,
+                          @Value("${mail.dispatch.queue-capacity:1000}") int queueCapacity,
+                          @Value("${mail.dispatch.batch-size:20}") int batchSize,
+                          @Value("${mail.dispatch.max-attempts:5}") int maxAttempts,
+                          @Value("${mail.dispatch.base-backoff-ms:2000}") long baseBackoffMs,
+                          @Value("${mail.dispatch.claim-lease-ms:300000}") long claimLeaseMs,
+                          @Value("${mail.dispatch.failed-retention-ms:604800000}") long failedRetentionMs,
+                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.mailSender = mailSender;
+        this.outboxMailRepository = outboxMailRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = Duration.ofMillis(baseBackoffMs);
+        this.claimLease = Duration.ofMillis(claimLeaseMs);
+        this.failedRetention = Duration.ofMillis(failedRetentionMs);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.virtualThreads = virtualThreads;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        // Workers spend nearly all their time waiting on SMTP, which is what virtual threads are for
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("mail-dispatch-", 0).factory()
+                : Thread.ofPlatform().name("mail-dispatch-", 0).daemon().factory();
+        executor = Executors.newFixedThreadPool(workers, threadFactory);
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::drainLoop);
+        }
+    }
+
+    public void enqueue(String to, String subject, String text) {
+        // Millis, as Mongo stores them, so renewClaims can match the claim it holds
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        OutboxMail mail = outboxMailRepository.save(OutboxMail.builder()
+                .to(to)
+                .subject(subject)
+                .text(text)
+                .status(OutboxMail.Status.QUEUED)
+                .claimedAt(now)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+
+        if (!queue.offer(mail)) {
+            log.warn("Mail queue full, leaving mail {} to the outbox poller", mail.getId());
+            mail.setStatus(OutboxMail.Status.PENDING);
+            outboxMailRepository.save(mail);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mail.dispatch.poll-ms:5000}")
+    public void pollOutbox() {
+        int claimed = 0;
+        while (running && queue.remainingCapacity() > 0) {
+            OutboxMail mail = claimNext();
+            if (mail == null) {
+                break;
+            }
+            if (!queue.offer(mail)) {
+                release(mail);
+                break;
+            }
+            claimed++;
+        }
+        if (claimed > 0) {
+            log.info("Claimed {} mails from the outbox", claimed);
+        }
+    }
+
+    // Atomic claim so several replicas can poll the same outbox without double-sending
+    private OutboxMail claimNext() {
+        Instant now = Instant.now();
+        Query claimable = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(OutboxMail.Status.PENDING).and("nextAttemptAt").lte(now),
+                Criteria.where("status").is(OutboxMail.Status.QUEUED).and("claimedAt").lte(now.minus(claimLease))
+        ));
+        Update claim = new Update()
+                .set("status", OutboxMail.Status.QUEUED)
+                .set("claimedAt", now);
+        return mongoTemplate.findAndModify(claimable, claim, FindAndModifyOptions.options().returnNew(true), OutboxMail.class);
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                OutboxMail first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<OutboxMail> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                List<OutboxMail> held = renewClaims(batch);
+                if (!held.isEmpty()) {
+                    sendBatch(held);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Mail dispatch worker error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    // A mail can sit in the queue longer than the lease, and then another dispatcher's poll may
+    // have claimed it. Renewing only succeeds while the claim this dispatcher made is still the
+    // stored one; mails that lost it are dropped here and left to their new owner.
+    private List<OutboxMail> renewClaims(List<OutboxMail> batch) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        List<OutboxMail> held = new ArrayList<>(batch.size());
+        for (OutboxMail mail : batch) {
+            Query ours = new Query(Criteria.where("_id").is(mail.getId())
+                    .and("status").is(OutboxMail.Status.QUEUED)
+                    .and("claimedAt").is(mail.getClaimedAt()));
+            if (mongoTemplate.updateFirst(ours, new Update().set("claimedAt", now), OutboxMail.class).getModifiedCount() > 0) {
+                mail.setClaimedAt(now);
+                held.add(mail);
+            } else {
+                log.info("Mail {} was claimed by another dispatcher while queued, skipping it", mail.getId());
+            }
+        }
+        return held;
+    }
+
+    private void sendBatch(List<OutboxMail> batch) {
+        Map<SimpleMailMessage, OutboxMail> byMessage = new IdentityHashMap<>();
+        for (OutboxMail mail : batch) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(mail.getTo());
+            message.setSubject(mail.getSubject());
+            message.setText(mail.getText());
+            byMessage.put(message, mail);
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        try {
+            // JavaMailSenderImpl sends an array over one connection
+            mailSender.send(byMessage.keySet().toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                failures = allFailed(byMessage, e);
+            }
+        } catch (Exception e) {
+            failures = allFailed(byMessage, e);
+        }
+
+        List<String> sent = new ArrayList<>();
+        for (Map.Entry<SimpleMailMessage, OutboxMail> entry : byMessage.entrySet()) {
+            Exception failure = failures.get(entry.getKey());
+            if (failure == null) {
+                sent.add(entry.getValue().getId());
+            } else {
+                reschedule(entry.getValue(), failure);
+            }
+        }
+        if (!sent.isEmpty()) {
+            outboxMailRepository.deleteAllById(sent);
+            log.info("Sent {} mails", sent.size());
+        }
+    }
+
+    private Map<Object, Exception> allFailed(Map<SimpleMailMessage, OutboxMail> byMessage, Exception e) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        byMessage.keySet().forEach(message -> failures.put(message, e));
+        return failures;
+    }
+
+    private void reschedule(OutboxMail mail, Exception failure) {
+        int attempts = mail.getAttempts() + 1;
+        mail.setAttempts(attempts);
+        mail.setLastError(failure.getMessage());
+        if (attempts >= maxAttempts) {
+            mail.setStatus(OutboxMail.Status.FAILED);
+            mail.setText(null);
+            mail.setExpireAt(Instant.now().plus(failedRetention));
+            log.error("Giving up on mail {} to {} after {} attempts: {}", mail.getId(), mail.getTo(), attempts, failure.getMessage());
+        } else {
+            mail.setStatus(OutboxMail.Status.PENDING);
+            mail.setNextAttemptAt(Instant.now().plus(baseBackoff.multipliedBy(1L << (attempts - 1))));
+            log.warn("Mail {} to {} failed (attempt {}), retrying at {}: {}", mail.getId(), mail.getTo(), attempts, mail.getNextAttemptAt(), failure.getMessage());
+        }
+        outboxMailRepository.save(mail);
+    }
+
+    private void release(OutboxMail mail) {
+        mail.setStatus(OutboxMail.Status.PENDING);
+        outboxMailRepository.save(mail);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        // Hand anything still queued back to the outbox so the next start picks it up immediately
+        List<OutboxMail> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        leftover.forEach(this::release);
+    }
+}
@@ -1,30 +1,28 @@
 package com.example.demo.Services.MailService;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import java.util.Map;
-import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
+
+import java.security.SecureRandom;
 
 @Service
+@RequiredArgsConstructor
 public class OtpService {
 
-    private final Map<String, String> otpCache = new ConcurrentHashMap<>();  // email -> otp
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final OtpStore otpStore;
 
     public String generateOtp(){
-        int otp = 100000 + new Random().nextInt(900000);
+        int otp = 100000 + RANDOM.nextInt(900000);
         return String.valueOf(otp);
     }
 
     public void saveOTP(String email,String otp){
-        otpCache.put(email,otp);
+        otpStore.save(email, otp);
     }
 
     public boolean verifyOTP(String email,String otp){
-        String cachedOtp = otpCache.get(email);
-        if (cachedOtp != null && cachedOtp.equals(otp)){
-            otpCache.remove(email);
-            return true;
-        }
-        return false;
+        return otpStore.verify(email, otp);
     }
 }
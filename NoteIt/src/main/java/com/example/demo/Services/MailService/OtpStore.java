@@ -0,0 +1,13 @@
+package com.example.demo.Services.MailService;
+
+/**
+ * Storage for pending signup OTPs. Implementations expire entries after the configured TTL
+ * and invalidate an OTP once too many wrong guesses were made against it.
+ */
+public interface OtpStore {
+
+    void save(String email, String otp);
+
+    // Consumes the OTP on success
+    boolean verify(String email, String otp);
+}
@@ -0,0 +1,73 @@
+package com.example.demo.Services.MailService;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * OTP store backed by Redis (or any server speaking its protocol), so every replica sees
+ * the same pending signups. Expiry is left to the server's key TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "redis")
+@Slf4j
+public class RedisOtpStore implements OtpStore {
+
+    private static final String KEY_PREFIX = "otp:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final int maxAttempts;
+
+    public RedisOtpStore(StringRedisTemplate redisTemplate,
+                         @Value("${otp.ttl-seconds:300}") long ttlSeconds,
+                         @Value("${otp.max-attempts:5}") int maxAttempts) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public void save(String email, String otp) {
+        redisTemplate.opsForValue().set(otpKey(email), otp, ttl);
+        redisTemplate.delete(attemptsKey(email));
+    }
+
+    @Override
+    public boolean verify(String email, String otp) {
+        String cachedOtp = redisTemplate.opsForValue().get(otpKey(email));
+        if (cachedOtp == null) {
+            return false;
+        }
+        Long attempts = redisTemplate.opsForValue().increment(attemptsKey(email));
+        if (attempts != null && attempts == 1) {
+            redisTemplate.expire(attemptsKey(email), ttl);
+        }
+        if (attempts == null || attempts > maxAttempts) {
+            log.warn("Too many OTP attempts for {}, OTP invalidated", email);
+            redisTemplate.delete(otpKey(email));
+            return false;
+        }
+        if (!cachedOtp.equals(otp)) {
+            return false;
+        }
+        // Only the request that actually deletes the key wins, so an OTP is never used twice
+        if (Boolean.TRUE.equals(redisTemplate.delete(otpKey(email)))) {
+            redisTemplate.delete(attemptsKey(email));
+            return true;
+        }
+        return false;
+    }
+
+    private String otpKey(String email) {
+        return KEY_PREFIX + email;
+    }
+
+    private String attemptsKey(String email) {
+        return KEY_PREFIX + email + ":attempts";
+    }
+}
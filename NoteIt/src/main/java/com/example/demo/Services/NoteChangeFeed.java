@@ -0,0 +1,325 @@
+package com.example.demo.Services;
+
+import com.example.demo.Dtos.NoteChangeEventDto;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-user server-sent events feed of note changes. One thread follows a change stream on the
+ * {@code notes} collection and fans each event out to the emitters of the note's owner; an open
+ * emitter holds no request thread, so idle connections cost only their socket and a small queue.
+ * The resume token is the SSE event id. A client that reconnects with {@code Last-Event-ID}
+ * gets the events it missed from a ring buffer of recent events, or a {@code reset} event telling
+ * it to refetch when it has been away too long.
+ */
+@Component
+@Slf4j
+public class NoteChangeFeed {
+
+    private static final String NOTES = "notes";
+    private static final int MAX_QUEUED_PER_SUBSCRIBER = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final long emitterTimeoutMs;
+    private final int replayCapacity;
+
+    private final ConcurrentHashMap<String, CopyOnWriteArrayList<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    // Recent events, oldest first; guarded by lock together with subscriber registration
+    private final ArrayDeque<FeedEvent> recent = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    // Sends may block on a slow client; they run here instead of on the watcher thread
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile boolean running;
+    private boolean preImages;
+    private volatile BsonDocument resumeToken;
+    private Thread watcher;
+
+    public NoteChangeFeed(MongoTemplate mongoTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${notes.change-feed.enabled:true}") boolean enabled,
+                          @Value("${notes.change-feed.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+                          @Value("${notes.change-feed.replay-capacity:10000}") int replayCapacity) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.replayCapacity = replayCapacity;
+        Gauge.builder("notes.change-feed.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        preImages = enablePreImages();
+        running = true;
+        watcher = Thread.ofPlatform().name("notes-change-feed").daemon().start(this::watchLoop);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public SseEmitter subscribe(String userId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        lock.lock();
+        try {
+            subscribers.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+            subscriberCount.incrementAndGet();
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                replay(subscriber, lastEventId);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return emitter;
+    }
+
+    // Called with lock held, so no live event can slip in between the replayed ones
+    private void replay(Subscriber subscriber, String lastEventId) {
+        Iterator<FeedEvent> it = recent.iterator();
+        boolean found = false;
+        while (it.hasNext()) {
+            if (it.next().id().equals(lastEventId)) {
+                found = true;
+                break;
+            }
+        }
+        if (!found) {
+            subscriber.enqueue(SseEmitter.event().name("reset").data("{}", MediaType.APPLICATION_JSON));
+            return;
+        }
+        it.forEachRemaining(event -> {
+            if (event.userId().equals(subscriber.userId)) {
+                subscriber.enqueue(event.toSse());
+            }
+        });
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (userId, list) -> {
+            if (list.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private void watchLoop() {
+        long backoffMs = 1000;
+        while (running) {
+            try {
+                var stream = mongoTemplate.getCollection(NOTES)
+                        .watch(List.of(
+                                Aggregates.match(Filters.in("operationType", "insert", "update", "replace", "delete")),
+                                // The looked-up documents are trimmed on the server; note bodies never reach this process
+                                Aggregates.project(Projections.include("operationType", "documentKey",
+                                        "fullDocument.userId", "fullDocument.version", "fullDocument.seq",
+                                        "fullDocumentBeforeChange.userId"))))
+                        .fullDocument(FullDocument.UPDATE_LOOKUP)
+                        .maxAwaitTime(1, TimeUnit.SECONDS);
+                if (preImages) {
+                    stream = stream.fullDocumentBeforeChange(FullDocumentBeforeChange.WHEN_AVAILABLE);
+                }
+                if (resumeToken != null) {
+                    stream = stream.resumeAfter(resumeToken);
+                }
+                try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+                    log.info("Note change feed is following the notes collection");
+                    backoffMs = 1000;
+                    while (running) {
+                        ChangeStreamDocument<Document> change = cursor.tryNext();
+                        if (change != null) {
+                            publish(change);
+                        }
+                        resumeToken = cursor.getResumeToken();
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                // Standalone servers have no change streams; keep retrying slowly rather than failing startup
+                log.warn("Note change stream failed, retrying in {} ms: {}", backoffMs, e.getMessage());
+                sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, 30_000);
+            }
+        }
+    }
+
+    // Package-private for tests, which feed it changes without a replica set
+    void publish(ChangeStreamDocument<Document> change) {
+        Document after = change.getFullDocument();
+        Document before = change.getFullDocumentBeforeChange();
+        Document source = after != null ? after : before;
+        String userId = source != null ? source.getString("userId") : null;
+        if (userId == null) {
+            // A delete without a pre-image does not say whose note it was
+            log.debug("Skipping {} change without an owner", change.getOperationTypeString());
+            return;
+        }
+
+        NoteChangeEventDto.Type type = switch (change.getOperationTypeString()) {
+            case "insert" -> NoteChangeEventDto.Type.CREATED;
+            case "delete" -> NoteChangeEventDto.Type.DELETED;
+            default -> after == null ? NoteChangeEventDto.Type.DELETED : NoteChangeEventDto.Type.UPDATED;
+        };
+        String noteId = change.getDocumentKey().get("_id").asObjectId().getValue().toHexString();
+        boolean live = after != null && type != NoteChangeEventDto.Type.DELETED;
+        FeedEvent event = new FeedEvent(change.getResumeToken().getString("_data").getValue(), userId,
+                new NoteChangeEventDto(type, noteId, live ? longOrNull(after, "version") : null, live ? longOrNull(after, "seq") : null));
+
+        lock.lock();
+        try {
+            recent.addLast(event);
+            if (recent.size() > replayCapacity) {
+                recent.removeFirst();
+            }
+            List<Subscriber> owners = subscribers.get(userId);
+            if (owners != null) {
+                owners.forEach(subscriber -> subscriber.enqueue(event.toSse()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Long longOrNull(Document document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    // SSE comment lines keep proxies and load balancers from closing idle connections
+    @Scheduled(fixedDelayString = "${notes.change-feed.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribers.values().forEach(list -> list.forEach(subscriber ->
+                subscriber.enqueue(SseEmitter.event().comment("keep-alive"))));
+    }
+
+    // Needs MongoDB 6+; without it delete events carry no userId and are not delivered
+    private boolean enablePreImages() {
+        try {
+            mongoTemplate.getDb().runCommand(new Document("collMod", NOTES)
+                    .append("changeStreamPreAndPostImages", new Document("enabled", true)));
+            return true;
+        } catch (Exception e) {
+            log.warn("Could not enable change stream pre-images on notes, deletes will not reach the feed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (watcher != null) {
+            watcher.join(5000);
+        }
+        List<Subscriber> all = new ArrayList<>();
+        subscribers.values().forEach(all::addAll);
+        all.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdown();
+    }
+
+    private record FeedEvent(String id, String userId, NoteChangeEventDto payload) {
+        SseEmitter.SseEventBuilder toSse() {
+            return SseEmitter.event()
+                    .id(id)
+                    .name(payload.getType().name().toLowerCase(Locale.ROOT))
+                    .data(payload, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    // Events for one connection are sent in order by at most one sender at a time
+    private final class Subscriber {
+        private final String userId;
+        private final SseEmitter emitter;
+        private final ConcurrentLinkedQueue<Set<SseEmitter.DataWithMediaType>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(String userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (queued.incrementAndGet() > MAX_QUEUED_PER_SUBSCRIBER) {
+                // Too far behind; closing makes the client reconnect and catch up from its last event id
+                emitter.complete();
+                return;
+            }
+            queue.add(event.build());
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<SseEmitter.DataWithMediaType> next;
+                while ((next = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    try {
+                        emitter.send(next);
+                    } catch (IOException | IllegalStateException e) {
+                        queue.clear();
+                        emitter.completeWithError(e);
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.demo.Services;
+
+import com.example.demo.Entities.Note;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Per-user change counter kept in {@code note_sequences}, one document per user. Every note
+ * write takes the next value and stamps it on the note (or its tombstone), so "what changed
+ * since N" is a range scan on (userId, seq).
+ *
+ * <p>Seqs are handed out before the write that carries them commits, so a later seq can become
+ * visible before an earlier one. Each allocated seq is therefore recorded as pending in the same
+ * atomic update that allocates it and removed once its write is done; {@link #horizon} tells
+ * readers where to stop so a sync never moves past a write still in flight. A pending entry older
+ * than the lease is treated as abandoned (its writer died), so a crash cannot stall sync forever.
+ *
+ * <p>Allocation is one findAndModify with {@code $inc}, so the entry cannot hold the seq it is
+ * about to get. It holds a floor instead, a seq known to be no higher: the one after this
+ * replica's last allocation for the user. The horizon is the lowest floor, which is exact while
+ * a user's notes are written through one replica and only ever too low, never too high, otherwise.
+ */
+@Component
+@Slf4j
+public class NoteSequence {
+
+    private static final String SEQUENCES = "note_sequences";
+    private static final String MIGRATIONS = "migrations";
+    private static final String BACKFILL = "note-seq-backfill";
+
+    private final MongoTemplate mongoTemplate;
+    private final long leaseMs;
+    private final long backfillTimeoutMs;
+
+    // Last seq this replica allocated per user, the floor for the next one; stale values stay valid
+    private final ConcurrentHashMap<String, Allocation> lastAllocated = new ConcurrentHashMap<>();
+    // Token of each pending entry this replica holds, keyed by userId and seq, for release
+    private final ConcurrentHashMap<String, ObjectId> tokens = new ConcurrentHashMap<>();
+
+    public NoteSequence(MongoTemplate mongoTemplate,
+                        @Value("${notes.sequence.lease-ms:30000}") long leaseMs,
+                        @Value("${notes.sequence.backfill-timeout-ms:600000}") long backfillTimeoutMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.leaseMs = leaseMs;
+        this.backfillTimeoutMs = backfillTimeoutMs;
+    }
+
+    // Takes the next seq and marks it pending in one step; pair every call with release
+    public long next(String userId) {
+        MongoCollection<Document> counters = mongoTemplate.getCollection(SEQUENCES);
+        ObjectId token = new ObjectId();
+        Document entry = new Document("token", token).append("floor", floor(userId, counters)).append("at", new Date());
+        Document counter = counters.findOneAndUpdate(
+                Filters.eq("_id", userId),
+                Updates.combine(Updates.inc("seq", 1L), Updates.push("pending", entry)),
+                new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+        long seq = ((Number) counter.get("seq")).longValue();
+        lastAllocated.merge(userId, new Allocation(seq, System.currentTimeMillis()),
+                (old, allocated) -> allocated.seq() > old.seq() ? allocated : old);
+        tokens.put(tokenKey(userId, seq), token);
+        return seq;
+    }
+
+    // The first allocation for a user on this replica reads the counter; later ones reuse what they learned
+    private long floor(String userId, MongoCollection<Document> counters) {
+        Allocation last = lastAllocated.get(userId);
+        if (last != null) {
+            return last.seq() + 1;
+        }
+        Document counter = counters.find(Filters.eq("_id", userId)).projection(Projections.include("seq")).first();
+        return counter != null && counter.get("seq") != null ? ((Number) counter.get("seq")).longValue() + 1 : 1L;
+    }
+
+    // The write stamped with seq has committed (or failed); readers may move past it
+    public void release(String userId, long seq) {
+        ObjectId token = tokens.remove(tokenKey(userId, seq));
+        try {
+            // Lapsed entries of crashed writers go out with it
+            Bson lapsed = Filters.lt("at", new Date(System.currentTimeMillis() - leaseMs));
+            mongoTemplate.getCollection(SEQUENCES).updateOne(Filters.eq("_id", userId),
+                    Updates.pullByFilter(new Document("pending",
+                            token != null ? Filters.or(Filters.eq("token", token), lapsed) : lapsed)));
+        } catch (Exception e) {
+            // The write itself is done; the entry lapses after the lease instead
+            log.warn("Failed to release seq {} for user {}: {}", seq, userId, e.getMessage());
+        }
+    }
+
+    // Runs write with the next seq and releases it afterwards, whether the write succeeded or not
+    public <T> T stamp(String userId, LongFunction<T> write) {
+        long seq = next(userId);
+        try {
+            return write.apply(seq);
+        } finally {
+            release(userId, seq);
+        }
+    }
+
+    /**
+     * First seq a reader must not return yet: the lowest seq still pending, or one past the
+     * counter if nothing is. Read it before querying notes, so seqs allocated in between are
+     * excluded as well.
+     */
+    public long horizon(String userId) {
+        Document counter = mongoTemplate.getCollection(SEQUENCES).find(new Document("_id", userId)).first();
+        if (counter == null) {
+            return 1L;
+        }
+        long horizon = ((Number) counter.get("seq")).longValue() + 1;
+        long lapsedBefore = System.currentTimeMillis() - leaseMs;
+        List<Document> pending = counter.getList("pending", Document.class, List.of());
+        for (Document entry : pending) {
+            Date at = entry.getDate("at");
+            if (at != null && at.getTime() > lapsedBefore) {
+                // Entries written before floors existed carry their exact seq
+                Object bound = entry.get("floor") != null ? entry.get("floor") : entry.get("seq");
+                horizon = Math.min(horizon, ((Number) bound).longValue());
+            }
+        }
+        return horizon;
+    }
+
+    @Scheduled(fixedDelayString = "${notes.sequence.lease-ms:30000}")
+    public void purgeFloors() {
+        long before = System.currentTimeMillis() - leaseMs;
+        lastAllocated.values().removeIf(allocation -> allocation.at() < before);
+    }
+
+    // Notes written before sequencing get one, so a sync from 0 can page through them. Runs once
+    // per database: one replica claims a marker in the migrations collection and closes it when
+    // done; a claim left open longer than the backfill timeout is taken over by the next start.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!claimBackfill()) {
+            return;
+        }
+        Query unsequenced = new Query(Criteria.where("seq").exists(false).and("userId").ne(null));
+        unsequenced.fields().include("userId");
+        int stamped = 0;
+        try (Stream<Note> notes = mongoTemplate.stream(unsequenced, Note.class)) {
+            for (Note note : (Iterable<Note>) notes::iterator) {
+                stamp(note.getUserId(), seq -> mongoTemplate.updateFirst(
+                        new Query(Criteria.where("_id").is(note.getId()).and("seq").exists(false)),
+                        new Update().set("seq", seq),
+                        Note.class));
+                stamped++;
+            }
+        } catch (Exception e) {
+            // The claim stays open, so another start retries once it times out
+            log.error("Failed to backfill note sequence numbers: {}", e.getMessage(), e);
+            return;
+        }
+        mongoTemplate.getCollection(MIGRATIONS).updateOne(Filters.eq("_id", BACKFILL),
+                Updates.set("completedAt", new Date()));
+        log.info("Stamped sequence numbers on {} existing notes", stamped);
+    }
+
+    private boolean claimBackfill() {
+        Date now = new Date();
+        try {
+            // Upserts the marker on first run; a completed or freshly claimed marker does not match,
+            // and the upsert then fails on the existing _id
+            mongoTemplate.getCollection(MIGRATIONS).findOneAndUpdate(
+                    Filters.and(Filters.eq("_id", BACKFILL), Filters.exists("completedAt", false),
+                            Filters.or(Filters.exists("claimedAt", false),
+                                    Filters.lt("claimedAt", new Date(now.getTime() - backfillTimeoutMs)))),
+                    Updates.set("claimedAt", now),
+                    new FindOneAndUpdateOptions().upsert(true));
+            return true;
+        } catch (MongoCommandException e) {
+            if (ErrorCategory.fromErrorCode(e.getErrorCode()) == ErrorCategory.DUPLICATE_KEY) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private static String tokenKey(String userId, long seq) {
+        return userId + ":" + seq;
+    }
+
+    private record Allocation(long seq, long at) {
+    }
+}
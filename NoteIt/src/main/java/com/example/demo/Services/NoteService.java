@@ -1,81 +1,445 @@
 package com.example.demo.Services;
 
 import com.example.demo.Entities.Note;
+import com.example.demo.Entities.NoteTombstone;
+import com.example.demo.Dtos.NoteChangesDto;
+import com.example.demo.Dtos.NoteDeltaDto;
 import com.example.demo.Dtos.NoteDto;
+import com.example.demo.Dtos.NotePageDto;
+import com.example.demo.Dtos.NotePatchDto;
+import com.example.demo.Dtos.NoteSearchHitDto;
+import com.example.demo.Dtos.NoteSuggestionDto;
+import com.example.demo.Dtos.NoteSummaryDto;
+import com.example.demo.Dtos.NoteVersionDto;
+import com.example.demo.Exception.ResourceNotFoundException;
+import com.example.demo.Mappers.NoteMapper;
+import com.example.demo.Repo.mongo.NoteListStamp;
 import com.example.demo.Repo.mongo.NoteRepository;
-import org.modelmapper.ModelMapper;
+import com.example.demo.Repo.mongo.NoteTombstoneRepository;
+import com.example.demo.Util.NoteCursor;
+import com.example.demo.Util.RawNoteJsonWriter;
+import com.example.demo.Util.ResourceVersion;
+import com.example.demo.Util.SearchHighlighter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mongodb.client.MongoCursor;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class NoteService {
+
+    private static final int EXPORT_FLUSH_EVERY = 100;
     
     @Autowired
     private NoteRepository noteRepository;
     
     @Autowired
-    private ModelMapper modelMapper;
+    private NoteMapper noteMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NoteTitleIndex noteTitleIndex;
+
+    @Autowired
+    private NoteWriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private NoteSequence noteSequence;
+
+    @Autowired
+    private NoteTombstoneRepository noteTombstoneRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${notes.read.raw-bson.enabled:false}")
+    private boolean rawReadEnabled;
+
+    @Value("${notes.page.max-size:200}")
+    private int maxPageSize;
+
+    @Value("${notes.search.max-results:50}")
+    private int maxSearchResults;
+
+    @Value("${notes.suggest.max-results:10}")
+    private int maxSuggestions;
     
     // Create a new note
     public NoteDto createNote(NoteDto noteDto) {
-        Note note = modelMapper.map(noteDto, Note.class);
+        Note note = noteMapper.toEntity(noteDto);
         note.setCreatedAt(LocalDateTime.now());
         note.setUpdatedAt(LocalDateTime.now());
         
-        Note savedNote = noteRepository.save(note);
-        return modelMapper.map(savedNote, NoteDto.class);
+        Note savedNote = note.getUserId() != null
+                ? noteSequence.stamp(note.getUserId(), seq -> {
+                    note.setSeq(seq);
+                    return noteRepository.save(note);
+                })
+                : noteRepository.save(note);
+        noteTitleIndex.put(savedNote);
+        return noteMapper.toDto(savedNote);
     }
     
     // Get all notes for a user
     public List<NoteDto> getAllNotesByUserId(String userId) {
         List<Note> notes = noteRepository.findByUserId(userId);
         return notes.stream()
-                .map(note -> modelMapper.map(note, NoteDto.class))
+                .map(note -> noteMapper.toDto(writeBehindBuffer.overlay(note)))
                 .collect(Collectors.toList());
     }
     
+    // Get one keyset page of a user's notes, newest first
+    public NotePageDto<NoteDto> getNotesPage(String userId, String cursor, int limit) {
+        int pageSize = clampPageSize(limit);
+        List<Note> notes = noteRepository.findPage(userId, decodeCursor(cursor), pageSize + 1);
+        // The cursor must carry the stored updatedAt, not an autosave overlay, or the next page would shift
+        String nextCursor = null;
+        if (notes.size() > pageSize) {
+            Note last = notes.get(pageSize - 1);
+            nextCursor = new NoteCursor(last.getUpdatedAt(), last.getId()).encode();
+        }
+        List<NoteDto> items = notes.stream()
+                .limit(pageSize)
+                .map(note -> noteMapper.toDto(writeBehindBuffer.overlay(note)))
+                .collect(Collectors.toList());
+        return new NotePageDto<>(items, nextCursor);
+    }
+
+    // Same page, projected to title and snippet inside Mongo
+    public NotePageDto<NoteSummaryDto> getNoteSummariesPage(String userId, String cursor, int limit) {
+        int pageSize = clampPageSize(limit);
+        List<NoteSummaryDto> summaries = noteRepository.findSummaryPage(userId, decodeCursor(cursor), pageSize + 1);
+        String nextCursor = null;
+        if (summaries.size() > pageSize) {
+            NoteSummaryDto last = summaries.get(pageSize - 1);
+            nextCursor = new NoteCursor(last.getUpdatedAt(), last.getId()).encode();
+        }
+        List<NoteSummaryDto> items = summaries.subList(0, Math.min(pageSize, summaries.size()));
+        items.forEach(writeBehindBuffer::overlay);
+        return new NotePageDto<>(items, nextCursor);
+    }
+
+    private int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    private NoteCursor decodeCursor(String cursor) {
+        return cursor == null || cursor.isBlank() ? null : NoteCursor.decode(cursor);
+    }
+    
+    public boolean isRawReadEnabled() {
+        return rawReadEnabled;
+    }
+
+    // Write a user's notes as one JSON array, transcoded from BSON without building entities
+    public void writeNotesJson(String userId, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(NoteDto.class);
+        try (JsonGenerator gen = openGenerator(out);
+             MongoCursor<RawBsonDocument> cursor = noteRepository.findRawByUserId(userId, null)) {
+            gen.writeStartArray();
+            while (cursor.hasNext()) {
+                writeRawNote(cursor.next(), gen, writer);
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    // The caller owns out (it may be a gzip stream still to be finished), so closing the generator must not close it
+    private JsonGenerator openGenerator(OutputStream out) throws IOException {
+        return objectMapper.getFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    // Notes with autosaves still buffered take the decoding path so the overlay applies
+    private void writeRawNote(RawBsonDocument document, JsonGenerator gen, ObjectWriter writer) throws IOException {
+        BsonValue id = document.get("_id");
+        String noteId = id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+        if (writeBehindBuffer.hasPending(noteId)) {
+            Note note = mongoTemplate.getConverter().read(Note.class, document);
+            writer.writeValue(gen, noteMapper.toDto(writeBehindBuffer.overlay(note)));
+        } else {
+            RawNoteJsonWriter.write(document, gen);
+        }
+    }
+
+    // Write a user's notes as NDJSON straight from the Mongo cursor, one line per note
+    public void exportNotes(String userId, String afterId, OutputStream out) throws IOException {
+        if (rawReadEnabled) {
+            exportNotesRaw(userId, afterId, out);
+            return;
+        }
+        ObjectWriter writer = objectMapper.writerFor(NoteDto.class);
+        int written = 0;
+        try (Stream<Note> notes = noteRepository.streamByUserId(userId, afterId)) {
+            Iterator<Note> it = notes.iterator();
+            while (it.hasNext()) {
+                out.write(writer.writeValueAsBytes(noteMapper.toDto(writeBehindBuffer.overlay(it.next()))));
+                out.write('\n');
+                if (++written % EXPORT_FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private void exportNotesRaw(String userId, String afterId, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(NoteDto.class);
+        int written = 0;
+        try (JsonGenerator gen = openGenerator(out);
+             MongoCursor<RawBsonDocument> cursor = noteRepository.findRawByUserId(userId, afterId)) {
+            gen.setRootValueSeparator(null);
+            while (cursor.hasNext()) {
+                writeRawNote(cursor.next(), gen, writer);
+                gen.writeRaw('\n');
+                if (++written % EXPORT_FLUSH_EVERY == 0) {
+                    gen.flush();
+                }
+            }
+        }
+    }
+    
+    // Validators for one note, without its content; empty when the note is missing or has buffered edits
+    public Optional<ResourceVersion> getNoteVersion(String id) {
+        if (writeBehindBuffer.hasPending(id)) {
+            return Optional.empty();
+        }
+        Note stamp = noteRepository.findStampById(id);
+        if (stamp == null) {
+            return Optional.empty();
+        }
+        long version = stamp.getVersion() != null ? stamp.getVersion() : 0L;
+        long updatedAt = ResourceVersion.toEpochMillis(stamp.getUpdatedAt());
+        return Optional.of(ResourceVersion.of(id + "-" + version + "-" + updatedAt, updatedAt));
+    }
+
+    // Validators for a user's full note list; empty while any of their notes has buffered edits,
+    // which Mongo's stamp does not reflect yet
+    public Optional<ResourceVersion> getNotesVersion(String userId) {
+        if (writeBehindBuffer.hasPendingForUser(userId)) {
+            return Optional.empty();
+        }
+        NoteListStamp stamp = noteRepository.findListStamp(userId);
+        long lastUpdatedAt = ResourceVersion.toEpochMillis(stamp.lastUpdatedAt());
+        return Optional.of(ResourceVersion.of(userId + "-" + stamp.count() + "-" + lastUpdatedAt, lastUpdatedAt));
+    }
+    
     // Get note by ID
     public Optional<NoteDto> getNoteById(String id) {
         Optional<Note> note = noteRepository.findById(id);
-        return note.map(n -> modelMapper.map(n, NoteDto.class));
+        return note.map(n -> noteMapper.toDto(writeBehindBuffer.overlay(n)));
+    }
+
+    // Buffer an editor autosave; it reaches Mongo as one coalesced partial update.
+    // Only the first edit of a burst reads the note, for its existence, version and owner; later ones merge into it.
+    // The returned version is the one the flush will write, so the editor can patch on top of it.
+    public NoteVersionDto autosaveNote(String id, NoteDto noteDto) {
+        long version = writeBehindBuffer.submit(id, noteDto.getTitle(), noteDto.getContent(), () -> {
+            Note stored = noteRepository.findStampById(id);
+            if (stored == null) {
+                throw new ResourceNotFoundException("Note not found with id: " + id);
+            }
+            return stored;
+        });
+        return new NoteVersionDto(id, version, LocalDateTime.now());
     }
     
     // Update note
     public NoteDto updateNote(String id, NoteDto noteDto) {
-        Optional<Note> existingNote = noteRepository.findById(id);
-        
-        if (existingNote.isPresent()) {
-            Note note = existingNote.get();
-            note.setTitle(noteDto.getTitle());
-            note.setContent(noteDto.getContent());
-            note.setUpdatedAt(LocalDateTime.now());
-            
-            Note updatedNote = noteRepository.save(note);
-            return modelMapper.map(updatedNote, NoteDto.class);
+        writeBehindBuffer.discard(id);
+        Update update = new Update()
+                .set("title", noteDto.getTitle())
+                .set("content", noteDto.getContent());
+        // Clients that don't send a version keep the old last-write-wins behaviour
+        return applyUpdate(id, noteDto.getVersion(), update);
+    }
+
+    // Update only the fields present in the patch, in one round trip, if the note is still at patch.version
+    public NoteDto patchNote(String id, NotePatchDto patch) {
+        writeBehindBuffer.flush(id); // buffered autosaves land first and bump the version, so a patch read before them conflicts
+        Update update = new Update();
+        if (patch.getTitle() != null) {
+            update.set("title", patch.getTitle());
         }
-        
-        throw new RuntimeException("Note not found with id: " + id);
+        if (patch.getContent() != null) {
+            update.set("content", patch.getContent());
+        }
+        if (patch.getCategory() != null) {
+            update.set("category", patch.getCategory());
+        }
+        if (patch.getArchived() != null) {
+            update.set("isArchived", patch.getArchived());
+        }
+        return applyUpdate(id, patch.getVersion(), update);
+    }
+
+    // Apply content ops sent against baseVersion; only the new version goes back to the client
+    public NoteVersionDto applyDelta(String id, NoteDeltaDto delta) {
+        writeBehindBuffer.flush(id);
+        Note current = noteRepository.findContentById(id);
+        if (current == null) {
+            throw new ResourceNotFoundException("Note not found with id: " + id);
+        }
+        long currentVersion = current.getVersion() != null ? current.getVersion() : 0L;
+        if (currentVersion != delta.getBaseVersion()) {
+            throw new OptimisticLockingFailureException("Note " + id + " is at version " + currentVersion
+                    + ", delta was made against " + delta.getBaseVersion());
+        }
+        String content = applyOps(current.getContent() != null ? current.getContent() : "", delta.getOps());
+        // Conditional again: another writer may have landed between the read and this write
+        Note updatedNote = updateStamped(current.getUserId(), new Update().set("content", content),
+                update -> noteRepository.updateIfVersion(id, delta.getBaseVersion(), update, "version", "updatedAt"));
+        if (updatedNote == null) {
+            throw new OptimisticLockingFailureException("Note " + id + " is no longer at version " + delta.getBaseVersion());
+        }
+        return new NoteVersionDto(updatedNote.getId(), updatedNote.getVersion(), updatedNote.getUpdatedAt());
+    }
+
+    private String applyOps(String content, List<NoteDeltaDto.Op> ops) {
+        StringBuilder text = new StringBuilder(content);
+        for (NoteDeltaDto.Op op : ops) {
+            int start = op.getPosition();
+            int end = start + op.getDeleteCount();
+            if (start > text.length() || end > text.length() || end < start) {
+                throw new IllegalArgumentException("Op [" + start + ", " + end + ") is outside the content (length " + text.length() + ")");
+            }
+            text.replace(start, end, op.getInsert() != null ? op.getInsert() : "");
+        }
+        return text.toString();
+    }
+
+    private NoteDto applyUpdate(String id, Long expectedVersion, Update update) {
+        // The owner picks the sequence counter; the projection is tiny next to the note itself
+        Note owner = noteRepository.findStampById(id);
+        if (owner == null) {
+            throw new ResourceNotFoundException("Note not found with id: " + id);
+        }
+        Note updatedNote = updateStamped(owner.getUserId(), update,
+                stamped -> noteRepository.updateIfVersion(id, expectedVersion, stamped));
+        if (updatedNote == null) {
+            if (!noteRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Note not found with id: " + id);
+            }
+            throw new OptimisticLockingFailureException("Note " + id + " is no longer at version " + expectedVersion);
+        }
+        noteTitleIndex.put(updatedNote);
+        return noteMapper.toDto(updatedNote);
+    }
+
+    // Sets the owner's next seq on the update and applies it; sync readers hold back until the write is done
+    private Note updateStamped(String userId, Update update, Function<Update, Note> write) {
+        if (userId == null) {
+            return write.apply(update);
+        }
+        return noteSequence.stamp(userId, seq -> write.apply(update.set("seq", seq)));
     }
     
     // Delete note
     public void deleteNote(String id) {
-        if (noteRepository.existsById(id)) {
+        Note existingNote = noteRepository.findStampById(id);
+        if (existingNote != null) {
+            String userId = existingNote.getUserId();
+            writeBehindBuffer.discard(id);
             noteRepository.deleteById(id);
+            noteTitleIndex.remove(userId, id);
+            if (userId != null) {
+                noteSequence.stamp(userId, seq -> noteTombstoneRepository.save(NoteTombstone.builder()
+                        .noteId(id)
+                        .userId(userId)
+                        .seq(seq)
+                        .deletedAt(LocalDateTime.now())
+                        .build()));
+            }
         } else {
             throw new RuntimeException("Note not found with id: " + id);
         }
     }
+
+    // Notes written and deleted after since, merged in seq order and capped at limit
+    public NoteChangesDto getChangesSince(String userId, long since, int limit) {
+        int pageSize = clampPageSize(limit);
+        // Taken before the queries: nothing at or past it is returned, so latestSeq never skips a write still in flight
+        long horizon = noteSequence.horizon(userId);
+        List<Note> notes = noteRepository.findChangedSince(userId, since, pageSize + 1).stream()
+                .filter(note -> note.getSeq() < horizon)
+                .toList();
+        List<NoteTombstone> tombstones = noteTombstoneRepository.findByUserIdAndSeqGreaterThanOrderBySeqAsc(
+                        userId, since, PageRequest.of(0, pageSize + 1)).stream()
+                .filter(tombstone -> tombstone.getSeq() < horizon)
+                .toList();
+
+        List<NoteDto> changed = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>();
+        long latestSeq = since;
+        int n = 0;
+        int t = 0;
+        while (changed.size() + deletedIds.size() < pageSize && (n < notes.size() || t < tombstones.size())) {
+            boolean takeNote = t >= tombstones.size()
+                    || (n < notes.size() && notes.get(n).getSeq() < tombstones.get(t).getSeq());
+            if (takeNote) {
+                Note note = notes.get(n++);
+                changed.add(noteMapper.toDto(writeBehindBuffer.overlay(note)));
+                latestSeq = note.getSeq();
+            } else {
+                NoteTombstone tombstone = tombstones.get(t++);
+                deletedIds.add(tombstone.getNoteId());
+                latestSeq = tombstone.getSeq();
+            }
+        }
+        boolean hasMore = n < notes.size() || t < tombstones.size();
+        return new NoteChangesDto(changed, deletedIds, latestSeq, hasMore);
+    }
     
     // Search notes
-    public List<NoteDto> searchNotes(String userId, String searchTerm) {
-        List<Note> notes = noteRepository.findByUserIdAndTitleOrContentContaining(userId, searchTerm);
+    public List<NoteDto> searchNotes(String userId, String searchTerm, int limit) {
+        List<Note> notes = noteRepository.searchText(userId, searchTerm, clampSearchLimit(limit));
         return notes.stream()
-                .map(note -> modelMapper.map(note, NoteDto.class))
+                .map(noteMapper::toDto)
                 .collect(Collectors.toList());
     }
+
+    // Ranked search results with a highlighted excerpt instead of the full content
+    public List<NoteSearchHitDto> searchNoteHits(String userId, String searchTerm, int limit) {
+        List<Note> notes = noteRepository.searchText(userId, searchTerm, clampSearchLimit(limit));
+        return notes.stream()
+                .map(note -> NoteSearchHitDto.builder()
+                        .id(note.getId())
+                        .title(note.getTitle())
+                        .snippet(SearchHighlighter.snippet(note.getContent(), searchTerm))
+                        .score(note.getScore() != null ? note.getScore() : 0f)
+                        .category(note.getCategory())
+                        .updatedAt(note.getUpdatedAt())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    // Title/category completions for the search box, served from memory
+    public List<NoteSuggestionDto> suggestNotes(String userId, String prefix, int limit) {
+        return noteTitleIndex.suggest(userId, prefix, Math.max(1, Math.min(limit, maxSuggestions)));
+    }
+
+    private int clampSearchLimit(int limit) {
+        return Math.max(1, Math.min(limit, maxSearchResults));
+    }
 }
\ No newline at end of file
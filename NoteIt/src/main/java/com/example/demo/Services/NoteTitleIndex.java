@@ -0,0 +1,227 @@
+package com.example.demo.Services;
+
+import com.example.demo.Dtos.NoteSuggestionDto;
+import com.example.demo.Entities.Note;
+import com.example.demo.Repo.mongo.NoteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory prefix index over note titles and categories for search-as-you-type. Each user gets
+ * a sorted map from term to the notes carrying it, so a completion is one range scan over the
+ * terms starting with the typed prefix, and a word shared by many notes is stored once. A user's
+ * index is loaded from Mongo on first use, kept in step by {@link NoteService} writes, and dropped
+ * again after it has been idle for a while or has reached its max age.
+ * <p>
+ * Every replica keeps its own index and only sees the writes it handles itself. A title changed
+ * through another replica shows up here once the index is reloaded, so {@code max-age-ms} bounds
+ * how stale suggestions can get.
+ */
+@Component
+@Slf4j
+public class NoteTitleIndex {
+
+    private final NoteRepository noteRepository;
+    private final long idleMs;
+    private final long maxAgeMs;
+
+    private final ConcurrentHashMap<String, UserIndex> indexes = new ConcurrentHashMap<>();
+
+    public NoteTitleIndex(NoteRepository noteRepository,
+                          @Value("${notes.suggest.idle-ms:1800000}") long idleMs,
+                          @Value("${notes.suggest.max-age-ms:300000}") long maxAgeMs) {
+        this.noteRepository = noteRepository;
+        this.idleMs = idleMs;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    public List<NoteSuggestionDto> suggest(String userId, String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        // Registering the empty index is cheap; the Mongo read happens outside the map's bin lock
+        UserIndex index = indexes.computeIfAbsent(userId, id -> new UserIndex());
+        index.ensureLoaded(userId);
+        index.lastAccess = System.currentTimeMillis();
+
+        // Terms sharing the prefix are contiguous; stop at the first limit distinct notes
+        NavigableMap<String, Set<Entry>> range = index.terms.subMap(normalized, true, normalized + Character.MAX_VALUE, false);
+        Set<String> seen = new HashSet<>();
+        List<NoteSuggestionDto> suggestions = new ArrayList<>(limit);
+        for (Set<Entry> entries : range.values()) {
+            for (Entry entry : entries) {
+                if (seen.add(entry.id())) {
+                    suggestions.add(new NoteSuggestionDto(entry.id(), entry.title(), entry.category()));
+                    if (suggestions.size() >= limit) {
+                        return suggestions;
+                    }
+                }
+            }
+        }
+        return suggestions;
+    }
+
+    // Called after a note was created or its title/category changed; a no-op for users not loaded yet
+    // and for notes without an owner, which no suggestion can reach
+    public void put(Note note) {
+        if (note.getUserId() == null) {
+            return;
+        }
+        UserIndex index = indexes.get(note.getUserId());
+        if (index != null) {
+            index.put(note.getId(), note.getTitle(), note.getCategory());
+        }
+    }
+
+    public void remove(String userId, String noteId) {
+        if (userId == null) {
+            return;
+        }
+        UserIndex index = indexes.get(userId);
+        if (index != null) {
+            index.remove(noteId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notes.suggest.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        indexes.values().removeIf(index -> index.lastAccess < now - idleMs || index.createdAt < now - maxAgeMs);
+    }
+
+    // Whole title, each word of it, and the category, so "gro" finds "Weekly grocery list"
+    private static Set<String> terms(String title, String category) {
+        Set<String> terms = new LinkedHashSet<>();
+        String normalizedTitle = normalize(title);
+        if (!normalizedTitle.isEmpty()) {
+            terms.add(normalizedTitle);
+            for (String word : normalizedTitle.split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) {
+                    terms.add(word);
+                }
+            }
+        }
+        String normalizedCategory = normalize(category);
+        if (!normalizedCategory.isEmpty()) {
+            terms.add(normalizedCategory);
+        }
+        return terms;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private final class UserIndex {
+        final ConcurrentSkipListMap<String, Set<Entry>> terms = new ConcurrentSkipListMap<>();
+        final ConcurrentHashMap<String, Indexed> byNote = new ConcurrentHashMap<>();
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastAccess = createdAt;
+
+        // Writers are serialized per user; readers only need the concurrent maps
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private final ReentrantLock loadLock = new ReentrantLock();
+        private volatile boolean loaded;
+        // Notes written while the load was running; their snapshot from the load is older, so it is skipped
+        private final Set<String> touched = new HashSet<>();
+
+        void ensureLoaded(String userId) {
+            if (loaded) {
+                return;
+            }
+            loadLock.lock();
+            try {
+                if (loaded) {
+                    return;
+                }
+                long start = System.nanoTime();
+                List<Note> notes = noteRepository.findTitlesByUserId(userId);
+                writeLock.lock();
+                try {
+                    notes.stream()
+                            .filter(note -> !touched.contains(note.getId()))
+                            .forEach(note -> add(note.getId(), note.getTitle(), note.getCategory()));
+                    touched.clear();
+                    loaded = true;
+                } finally {
+                    writeLock.unlock();
+                }
+                log.debug("Loaded title index for user {} ({} notes) in {} ms",
+                        userId, byNote.size(), (System.nanoTime() - start) / 1_000_000);
+            } finally {
+                loadLock.unlock();
+            }
+        }
+
+        void put(String noteId, String title, String category) {
+            writeLock.lock();
+            try {
+                if (!loaded) {
+                    touched.add(noteId);
+                }
+                removeLocked(noteId);
+                add(noteId, title, category);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        void remove(String noteId) {
+            writeLock.lock();
+            try {
+                if (!loaded) {
+                    touched.add(noteId);
+                }
+                removeLocked(noteId);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        private void add(String noteId, String title, String category) {
+            // One Entry shared by all of the note's terms
+            Entry entry = new Entry(noteId, title, category);
+            String[] noteTerms = terms(title, category).toArray(String[]::new);
+            for (String term : noteTerms) {
+                terms.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(entry);
+            }
+            byNote.put(noteId, new Indexed(entry, noteTerms));
+        }
+
+        private void removeLocked(String noteId) {
+            Indexed indexed = byNote.remove(noteId);
+            if (indexed == null) {
+                return;
+            }
+            for (String term : indexed.terms()) {
+                Set<Entry> entries = terms.get(term);
+                if (entries != null) {
+                    entries.remove(indexed.entry());
+                    if (entries.isEmpty()) {
+                        terms.remove(term, entries);
+                    }
+                }
+            }
+        }
+    }
+
+    private record Entry(String id, String title, String category) {
+    }
+
+    private record Indexed(Entry entry, String[] terms) {
+    }
+}
@@ -0,0 +1,359 @@
+package com.example.demo.Services;
+
+import com.example.demo.Entities.Note;
+import com.example.demo.Dtos.NoteSummaryDto;
+import com.example.demo.Exception.ServiceBusyException;
+import com.example.demo.Repo.mongo.NoteRepositoryCustom;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind buffer for editor autosaves. Updates to the same note are merged in memory and
+ * written as one partial {@code $set} once the note has been quiet for the coalescing window, or
+ * at the latest after the max delay. Reads go through {@link #overlay(Note)} so a user always sees
+ * their own unflushed edits, and anything still buffered is written out on shutdown. Each flush
+ * bumps the note version like any other write, so a versioned update made against the note as it
+ * was before the autosave gets a conflict instead of silently overwriting it; the version an edit
+ * will land as is returned from {@link #submit} and shown by the overlay, so the editor that
+ * autosaved can keep patching. Flushes claim notes one by one and hold no lock while writing, so a
+ * request that needs one note flushed only waits for that note. The buffer holds at
+ * most {@code max-pending} notes; while Mongo is failing, autosaves for further notes are refused
+ * rather than kept in memory. Notes are also tracked per owner, so a user's note list can tell when
+ * what Mongo holds for it is not the whole story yet.
+ */
+@Component
+@Slf4j
+public class NoteWriteBehindBuffer {
+
+    private final MongoTemplate mongoTemplate;
+    private final NoteTitleIndex noteTitleIndex;
+    private final NoteSequence noteSequence;
+    private final long windowMs;
+    private final long maxDelayMs;
+    private final int maxPending;
+
+    private final ConcurrentHashMap<String, PendingEdit> pending = new ConcurrentHashMap<>();
+    // Edits taken out of pending but not yet acknowledged by Mongo; still visible to reads
+    private final ConcurrentHashMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+    // Owner -> their notes with buffered edits; only changed under the owner's map bin
+    private final ConcurrentHashMap<String, Set<String>> pendingByUser = new ConcurrentHashMap<>();
+
+    private final Counter received;
+    private final Counter written;
+    private final Counter rejected;
+
+    public NoteWriteBehindBuffer(MongoTemplate mongoTemplate,
+                                 NoteTitleIndex noteTitleIndex,
+                                 NoteSequence noteSequence,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${notes.autosave.window-ms:2000}") long windowMs,
+                                 @Value("${notes.autosave.max-delay-ms:10000}") long maxDelayMs,
+                                 @Value("${notes.autosave.max-pending:10000}") int maxPending) {
+        this.mongoTemplate = mongoTemplate;
+        this.noteTitleIndex = noteTitleIndex;
+        this.noteSequence = noteSequence;
+        this.windowMs = windowMs;
+        this.maxDelayMs = maxDelayMs;
+        this.maxPending = maxPending;
+        this.received = Counter.builder("notes.autosave.received").register(meterRegistry);
+        this.written = Counter.builder("notes.autosave.written").register(meterRegistry);
+        this.rejected = Counter.builder("notes.autosave.rejected").register(meterRegistry);
+        Gauge.builder("notes.autosave.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    // Null fields are left untouched, so a title-only autosave never clobbers content. Returns the
+    // version the note will have once this edit is flushed; stored (the note's version and owner) is
+    // only read when nothing is buffered for the note yet, and throws if the note does not exist.
+    public long submit(String noteId, String title, String content, Supplier<Note> stored) {
+        // Approximate under concurrency, which is fine for a memory guard; notes already buffered always merge
+        if (pending.size() >= maxPending && !pending.containsKey(noteId)) {
+            rejected.increment();
+            throw new ServiceBusyException("Too many unsaved autosaves, please retry shortly.");
+        }
+        Note read = hasPending(noteId) ? null : stored.get();
+        long now = System.currentTimeMillis();
+        PendingEdit merged = pending.compute(noteId, (id, queued) -> {
+            if (queued != null) {
+                return queued.then(new PendingEdit(title, content, now, now, 0, queued.userId()));
+            }
+            // A flight still landing bumps the version once more before this edit's flush does
+            Flight flying = inFlight.get(id);
+            if (flying != null) {
+                return new PendingEdit(title, content, now, now, flying.edit().baseVersion() + 1, flying.edit().userId());
+            }
+            Note note = read != null ? read : stored.get(); // the earlier flush landed in between
+            return new PendingEdit(title, content, now, now, note.getVersion() != null ? note.getVersion() : 0L, note.getUserId());
+        });
+        if (merged.userId() != null) {
+            pendingByUser.compute(merged.userId(), (userId, noteIds) -> {
+                Set<String> ids = noteIds != null ? noteIds : new HashSet<>();
+                ids.add(noteId);
+                return ids;
+            });
+        }
+        received.increment();
+        return merged.baseVersion() + 1;
+    }
+
+    public boolean hasPending(String noteId) {
+        return pending.containsKey(noteId) || inFlight.containsKey(noteId);
+    }
+
+    public boolean hasPendingForUser(String userId) {
+        return pendingByUser.containsKey(userId);
+    }
+
+    // Applies buffered edits on top of what was read from Mongo, including the version they will land as
+    public Note overlay(Note note) {
+        PendingEdit edit = latest(note.getId());
+        if (edit != null) {
+            if (edit.title() != null) {
+                note.setTitle(edit.title());
+            }
+            if (edit.content() != null) {
+                note.setContent(edit.content());
+            }
+            note.setUpdatedAt(edit.updatedAt());
+            note.setVersion(edit.baseVersion() + 1);
+        }
+        return note;
+    }
+
+    public NoteSummaryDto overlay(NoteSummaryDto summary) {
+        PendingEdit edit = latest(summary.getId());
+        if (edit != null) {
+            if (edit.title() != null) {
+                summary.setTitle(edit.title());
+            }
+            if (edit.content() != null) {
+                String content = edit.content();
+                int end = content.offsetByCodePoints(0, Math.min(NoteRepositoryCustom.SNIPPET_LENGTH, content.codePointCount(0, content.length())));
+                summary.setSnippet(content.substring(0, end));
+            }
+            summary.setUpdatedAt(edit.updatedAt());
+        }
+        return summary;
+    }
+
+    // A full PUT or a delete supersedes whatever autosaves are still buffered for the note. An edit
+    // already on its way to Mongo cannot be recalled, so the caller waits for it to land first.
+    public void discard(String noteId) {
+        if (!hasPending(noteId)) {
+            return;
+        }
+        PendingEdit dropped = pending.remove(noteId);
+        awaitLanding(noteId);
+        if (dropped != null) {
+            untrack(noteId, dropped.userId());
+        }
+    }
+
+    // Writes out one note's buffered edits now, e.g. before a versioned update is applied on top.
+    // Only waits on this note: a batch flush holding other notes is never in the way.
+    public void flush(String noteId) {
+        for (int attempt = 0; attempt < 3 && hasPending(noteId); attempt++) {
+            if (awaitLanding(noteId)) {
+                continue;
+            }
+            List<Map.Entry<String, Flight>> claimed = claim(List.of(noteId), (id, edit) -> true);
+            if (!claimed.isEmpty()) {
+                write(claimed);
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notes.autosave.flush-interval-ms:500}")
+    public void flushDue() {
+        long now = System.currentTimeMillis();
+        flush((noteId, edit) -> now - edit.lastAt() >= windowMs || now - edit.firstAt() >= maxDelayMs);
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flush((noteId, edit) -> true);
+    }
+
+    private void flush(BiPredicate<String, PendingEdit> due) {
+        List<Map.Entry<String, Flight>> claimed = claim(pending.keySet(), due);
+        if (!claimed.isEmpty()) {
+            write(claimed);
+        }
+    }
+
+    // Moves due edits from pending to inFlight, one note at a time under its map bin. A note whose
+    // previous edit is still landing stays pending, so a note never has two writes racing.
+    private List<Map.Entry<String, Flight>> claim(Iterable<String> noteIds, BiPredicate<String, PendingEdit> due) {
+        List<Map.Entry<String, Flight>> claimed = new ArrayList<>();
+        for (String noteId : noteIds) {
+            pending.computeIfPresent(noteId, (id, edit) -> {
+                if (!due.test(id, edit)) {
+                    return edit;
+                }
+                Flight flight = new Flight(edit, new CompletableFuture<>());
+                if (inFlight.putIfAbsent(id, flight) != null) {
+                    return edit;
+                }
+                claimed.add(Map.entry(id, flight));
+                return null;
+            });
+        }
+        return claimed;
+    }
+
+    private boolean awaitLanding(String noteId) {
+        Flight flying = inFlight.get(noteId);
+        if (flying == null) {
+            return false;
+        }
+        flying.landed().join();
+        return true;
+    }
+
+    private void write(List<Map.Entry<String, Flight>> batch) {
+        // (userId, seq) pairs taken for this batch; released once the bulk write is over either way
+        List<Map.Entry<String, Long>> allocated = new ArrayList<>();
+        Map<String, Note> owners;
+        try {
+            // Owners pick the sequence counter; notes deleted meanwhile simply drop their edits
+            owners = findOwners(batch.stream().map(Map.Entry::getKey).toList());
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class);
+            for (Map.Entry<String, Flight> entry : batch) {
+                Note owner = owners.get(entry.getKey());
+                if (owner == null) {
+                    continue;
+                }
+                PendingEdit edit = entry.getValue().edit();
+                // Server time, like every other write path, so the latest updatedAt always moves forward
+                Update update = new Update().currentDate("updatedAt").inc("version", 1);
+                if (edit.title() != null) {
+                    update.set("title", edit.title());
+                }
+                if (edit.content() != null) {
+                    update.set("content", edit.content());
+                }
+                if (owner.getUserId() != null) {
+                    long seq = noteSequence.next(owner.getUserId());
+                    allocated.add(Map.entry(owner.getUserId(), seq));
+                    update.set("seq", seq);
+                }
+                bulk.updateOne(new Query(Criteria.where("_id").is(entry.getKey())), update);
+            }
+            if (!owners.isEmpty()) {
+                bulk.execute();
+            }
+        } catch (Exception e) {
+            // Put the edits back unless a newer autosave already replaced them
+            log.error("Autosave flush of {} notes failed, will retry: {}", batch.size(), e.getMessage(), e);
+            batch.forEach(entry -> {
+                pending.merge(entry.getKey(), entry.getValue().edit(), (newer, failed) -> failed.then(newer));
+                land(entry);
+            });
+            return;
+        } finally {
+            allocated.forEach(seq -> noteSequence.release(seq.getKey(), seq.getValue()));
+        }
+
+        // The edits have landed; nothing past this point may put them back into pending
+        written.increment(owners.size());
+        batch.forEach(this::land);
+        for (Map.Entry<String, Flight> entry : batch) {
+            Note owner = owners.get(entry.getKey());
+            if (owner != null && entry.getValue().edit().title() != null) {
+                owner.setTitle(entry.getValue().edit().title());
+                try {
+                    noteTitleIndex.put(owner);
+                } catch (Exception e) {
+                    log.warn("Could not update the title index for note {}: {}", entry.getKey(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void land(Map.Entry<String, Flight> entry) {
+        inFlight.remove(entry.getKey(), entry.getValue());
+        entry.getValue().landed().complete(null);
+        untrack(entry.getKey(), entry.getValue().edit().userId());
+    }
+
+    // Checked under the owner's bin, which submit also takes after queueing, so a note is never
+    // dropped from its owner's set while an edit for it is still buffered
+    private void untrack(String noteId, String userId) {
+        if (userId == null) {
+            return;
+        }
+        pendingByUser.computeIfPresent(userId, (id, noteIds) -> {
+            if (!hasPending(noteId)) {
+                noteIds.remove(noteId);
+            }
+            return noteIds.isEmpty() ? null : noteIds;
+        });
+    }
+
+    private Map<String, Note> findOwners(List<String> noteIds) {
+        Query query = new Query(Criteria.where("_id").in(noteIds));
+        query.fields().include("userId", "category");
+        return mongoTemplate.find(query, Note.class).stream()
+                .collect(Collectors.toMap(Note::getId, note -> note));
+    }
+
+    // The queued edit's base already counts the flight ahead of it, so its version wins
+    private PendingEdit latest(String noteId) {
+        PendingEdit queued = pending.get(noteId);
+        Flight flying = inFlight.get(noteId);
+        if (queued == null || flying == null) {
+            return queued != null ? queued : flying != null ? flying.edit() : null;
+        }
+        return flying.edit().then(queued).withBase(queued.baseVersion());
+    }
+
+    // baseVersion is the note's version before this edit's flush, which bumps it by one
+    private record Flight(PendingEdit edit, CompletableFuture<Void> landed) {
+    }
+
+    private record PendingEdit(String title, String content, long firstAt, long lastAt, long baseVersion, String userId) {
+
+        PendingEdit then(PendingEdit next) {
+            return new PendingEdit(
+                    next.title != null ? next.title : title,
+                    next.content != null ? next.content : content,
+                    Math.min(firstAt, next.firstAt),
+                    Math.max(lastAt, next.lastAt),
+                    baseVersion,
+                    userId);
+        }
+
+        PendingEdit withBase(long base) {
+            return new PendingEdit(title, content, firstAt, lastAt, base, userId);
+        }
+
+        LocalDateTime updatedAt() {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(lastAt), ZoneId.systemDefault());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.demo.Services;
+
+import com.example.demo.Dtos.ProfileDTO;
+import com.example.demo.Mappers.ProfileMapper;
+import com.example.demo.Repo.jpa.ProfileRepo;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-through cache plus request coalescing for single-profile lookups. Misses arriving within
+ * a few milliseconds of each other are collected into one batch and loaded with a single
+ * {@code IN} query on the user_id column, so a page rendering twenty avatars costs one query
+ * instead of twenty (or forty). Writers evict the user's entry.
+ */
+@Component
+@Slf4j
+public class ProfileBatchLoader {
+
+    private final ProfileRepo profileRepo;
+    private final ProfileMapper profileMapper;
+    private final long windowMs;
+    private final int maxBatchSize;
+    private final long ttlMs;
+
+    private final ConcurrentHashMap<Long, CachedProfile> cache = new ConcurrentHashMap<>();
+    // When each user was last evicted, so a batch that started earlier does not cache stale data
+    private final ConcurrentHashMap<Long, Long> evictedAt = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<Long, CompletableFuture<ProfileDTO>> batch = new HashMap<>();
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("profile-batch-timer").daemon().factory());
+    private final ExecutorService loaders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ProfileBatchLoader(ProfileRepo profileRepo,
+                              ProfileMapper profileMapper,
+                              @Value("${profiles.batch.window-ms:5}") long windowMs,
+                              @Value("${profiles.batch.max-size:100}") int maxBatchSize,
+                              @Value("${profiles.cache.ttl-ms:60000}") long ttlMs) {
+        this.profileRepo = profileRepo;
+        this.profileMapper = profileMapper;
+        this.windowMs = windowMs;
+        this.maxBatchSize = maxBatchSize;
+        this.ttlMs = ttlMs;
+    }
+
+    // The profile of userId, or null when the user has none
+    public ProfileDTO load(Long userId) {
+        CachedProfile cached = cache.get(userId);
+        if (cached != null && !cached.isExpired(System.currentTimeMillis(), ttlMs)) {
+            return cached.profile();
+        }
+        try {
+            return enqueue(userId).get(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading profile " + userId, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to load profile " + userId, e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out loading profile " + userId, e);
+        }
+    }
+
+    public void evict(Long userId) {
+        evictedAt.put(userId, System.currentTimeMillis());
+        cache.remove(userId);
+    }
+
+    private CompletableFuture<ProfileDTO> enqueue(Long userId) {
+        Map<Long, CompletableFuture<ProfileDTO>> full = null;
+        CompletableFuture<ProfileDTO> future;
+        lock.lock();
+        try {
+            future = batch.get(userId);
+            if (future != null) {
+                return future; // someone already asked for this user in the current window
+            }
+            future = new CompletableFuture<>();
+            batch.put(userId, future);
+            if (batch.size() == 1) {
+                timer.schedule(this::dispatch, windowMs, TimeUnit.MILLISECONDS);
+            } else if (batch.size() >= maxBatchSize) {
+                full = takeBatch();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            Map<Long, CompletableFuture<ProfileDTO>> toLoad = full;
+            loaders.execute(() -> loadBatch(toLoad));
+        }
+        return future;
+    }
+
+    // Timer callback; after an early size-triggered dispatch it may find an empty or newer batch, both fine
+    private void dispatch() {
+        Map<Long, CompletableFuture<ProfileDTO>> toLoad;
+        lock.lock();
+        try {
+            toLoad = takeBatch();
+        } finally {
+            lock.unlock();
+        }
+        if (!toLoad.isEmpty()) {
+            loaders.execute(() -> loadBatch(toLoad));
+        }
+    }
+
+    private Map<Long, CompletableFuture<ProfileDTO>> takeBatch() {
+        Map<Long, CompletableFuture<ProfileDTO>> taken = batch;
+        batch = new HashMap<>();
+        return taken;
+    }
+
+    private void loadBatch(Map<Long, CompletableFuture<ProfileDTO>> toLoad) {
+        long startedAt = System.currentTimeMillis();
+        try {
+            Map<Long, ProfileDTO> loaded = new HashMap<>();
+            profileRepo.findAllByUser_IdIn(new ArrayList<>(toLoad.keySet()))
+                    .forEach(profile -> loaded.put(profile.getUser().getId(), profileMapper.toDto(profile)));
+            log.debug("Loaded {} profiles in one batch for {} requested users", loaded.size(), toLoad.size());
+
+            toLoad.forEach((userId, future) -> {
+                ProfileDTO profile = loaded.get(userId);
+                Long evicted = evictedAt.get(userId);
+                if (profile != null && (evicted == null || evicted < startedAt)) {
+                    cache.put(userId, new CachedProfile(profile, startedAt));
+                }
+                future.complete(profile);
+            });
+        } catch (RuntimeException e) {
+            toLoad.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${profiles.cache.ttl-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(cached -> cached.isExpired(now, ttlMs));
+        evictedAt.values().removeIf(at -> now - at >= ttlMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        timer.shutdownNow();
+        loaders.shutdown();
+    }
+
+    private record CachedProfile(ProfileDTO profile, long loadedAt) {
+        boolean isExpired(long now, long ttlMs) {
+            return now - loadedAt >= ttlMs;
+        }
+    }
+}
@@ -4,8 +4,10 @@ import com.example.demo.Dtos.ProfileDTO;
 import com.example.demo.Entities.Profile;
 import com.example.demo.Entities.User;
 import com.example.demo.Exception.ResourceNotFoundException;
+import com.example.demo.Mappers.ProfileMapper;
 import com.example.demo.Repo.jpa.ProfileRepo;
 import com.example.demo.Repo.jpa.AuthRepo;
+import com.example.demo.Util.ResourceVersion;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -25,14 +27,25 @@ public class ProfileService {
 
     private final ProfileRepo profileRepo;
     private final AuthRepo authRepo;
+    private final ProfileMapper profileMapper;
+    private final ProfileBatchLoader profileBatchLoader;
 
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
 
+    // Served from the batch loader's cache; concurrent misses share one query
     public ProfileDTO getProfile(Long userId) {
-        Profile profile = profileRepo.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Profile not found"));
-        return convertToDTO(profile);
+        ProfileDTO profile = profileBatchLoader.load(userId);
+        if (profile == null) {
+            throw new ResourceNotFoundException("Profile not found");
+        }
+        return profile;
+    }
+
+    // Validators for the profile being served. They must come from the same (possibly cached) copy as the
+    // body: an ETag read from the database next to a stale cached body would pin that body behind 304s.
+    public ResourceVersion getProfileVersion(ProfileDTO profile) {
+        return ResourceVersion.of("profile-" + profile.getUserId() + "-" + profile.getUpdatedAt(), profile.getUpdatedAt());
     }
 
     public ProfileDTO updateProfile(Long userId, ProfileDTO profileDTO) {
@@ -47,7 +60,8 @@ public class ProfileService {
         }
 
         Profile updatedProfile = profileRepo.save(profile);
-        return convertToDTO(updatedProfile);
+        profileBatchLoader.evict(userId);
+        return profileMapper.toDto(updatedProfile);
     }
 
     public String uploadAvatar(Long userId, MultipartFile file) {
@@ -77,6 +91,7 @@ public class ProfileService {
             String avatarUrl = "/uploads/" + filename;
             profile.setAvatarUrl(avatarUrl);
             profileRepo.save(profile);
+            profileBatchLoader.evict(userId);
 
             return avatarUrl;
         } catch (IOException e) {
@@ -93,19 +108,6 @@ public class ProfileService {
 
     public List<ProfileDTO> getProfilesByUserIds(List<Long> userIds) {
         List<Profile> profiles = profileRepo.findAllByUser_IdIn(userIds);
-        return profiles.stream().map(this::convertToDTO).toList();
-    }
-
-    private ProfileDTO convertToDTO(Profile profile) {
-        return ProfileDTO.builder()
-                .id(profile.getId())
-                .userId(profile.getUser().getId())
-                .displayName(profile.getDisplayName())
-                .avatarUrl(profile.getAvatarUrl())
-                .bio(profile.getBio())
-                .customStatus(profile.getCustomStatus())
-                .createdAt(profile.getCreatedAt())
-                .updatedAt(profile.getUpdatedAt())
-                .build();
+        return profiles.stream().map(profileMapper::toDto).toList();
     }
 } 
\ No newline at end of file
@@ -7,6 +7,7 @@ import com.example.demo.Exception.ResourceNotFoundException;
 import com.example.demo.Repo.jpa.AuthRepo;
 import com.example.demo.Repo.jpa.RefreshTokenRepository;
 import com.example.demo.Dtos.LoginResponseDto;
+import com.example.demo.Util.VerifiedTokenCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,7 +29,11 @@ public class RefreshTokenService {
     @Autowired
     @Lazy
     private JwtService jwtService;
+    @Autowired
+    @Lazy
+    private TokenRefreshCoordinator tokenRefreshCoordinator;
     private final AuthRepo authRepo;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Transactional
     public RefreshToken createRefreshToken(User user) {
@@ -36,7 +41,7 @@ public class RefreshTokenService {
         String token = jwtService.generateRefreshToken(user);
         
         // Create and save refresh token entity
-        RefreshToken refreshToken = refreshTokenRepository.findByUser(user)
+        RefreshToken refreshToken = refreshTokenRepository.findByUserId(user.getId())
                 .map(existingToken -> {
                     existingToken.setToken(token);
                     existingToken.setExpiryDate(Instant.now().plusMillis(jwtService.getRefreshExpiration()));
@@ -69,6 +74,9 @@ public class RefreshTokenService {
                 .ifPresent(refreshToken -> {
                     refreshToken.setRevoked(true);
                     refreshTokenRepository.save(refreshToken);
+                    verifiedTokenCache.invalidate(token);
+                    verifiedTokenCache.invalidateUser(refreshToken.getUser().getId());
+                    tokenRefreshCoordinator.evict(refreshToken.getUser().getId());
                 });
     }
 
@@ -78,7 +86,7 @@ public class RefreshTokenService {
 //not usefull method instead do login
     public ResponseEntity<LoginResponseDto> handleRefresh(String token) {
         try {
-            RefreshToken storedToken = findByToken(token)
+            RefreshToken storedToken = refreshTokenRepository.findWithUserByToken(token)
                     .orElseThrow(() -> new RuntimeException("Refresh token not found"));
             verifyExpiration(storedToken);
 
@@ -0,0 +1,97 @@
+package com.example.demo.Services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-flight wrapper around {@link AuthServiceImpl#refreshAT}. Concurrent refreshes for the
+ * same user share one lookup and one minted token, and that token is handed out again to
+ * requests arriving within the coalescing window. Evicting a user, e.g. on logout, also keeps a
+ * refresh that was already running from caching its token.
+ */
+@Service
+@Slf4j
+public class TokenRefreshCoordinator {
+
+    private final AuthServiceImpl authService;
+    private final long windowMs;
+
+    private final ConcurrentHashMap<Long, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, MintedToken> recent = new ConcurrentHashMap<>();
+    // When each user was last evicted, so a refresh that started earlier does not cache its token
+    private final ConcurrentHashMap<Long, Long> evictedAt = new ConcurrentHashMap<>();
+
+    public TokenRefreshCoordinator(AuthServiceImpl authService,
+                                   @Value("${jwt.refresh.coalesce-window-ms:10000}") long windowMs) {
+        this.authService = authService;
+        this.windowMs = windowMs;
+    }
+
+    public String refresh(Long userId) {
+        MintedToken minted = recent.get(userId);
+        if (minted != null && minted.isFresh(System.currentTimeMillis(), windowMs)) {
+            log.info("Reusing access token minted {} ms ago for user {}", System.currentTimeMillis() - minted.mintedAt(), userId);
+            return minted.token();
+        }
+
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(userId, mine);
+        if (existing != null) {
+            log.info("Joining in-flight token refresh for user {}", userId);
+            return join(existing);
+        }
+
+        long startedAt = System.currentTimeMillis();
+        try {
+            String token = authService.refreshAT(userId);
+            Long evicted = evictedAt.get(userId);
+            if (!"REFRESH_EXPIRED".equals(token) && (evicted == null || evicted < startedAt)) {
+                recent.put(userId, new MintedToken(token, System.currentTimeMillis()));
+            }
+            mine.complete(token);
+            return token;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(userId, mine);
+        }
+    }
+
+    // Requests after this start a new refresh instead of joining one already running
+    public void evict(Long userId) {
+        evictedAt.put(userId, System.currentTimeMillis());
+        inFlight.remove(userId);
+        recent.remove(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.coalesce-window-ms:10000}")
+    public void purgeStale() {
+        long now = System.currentTimeMillis();
+        recent.values().removeIf(minted -> !minted.isFresh(now, windowMs));
+        evictedAt.values().removeIf(at -> now - at >= windowMs);
+    }
+
+    private String join(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record MintedToken(String token, long mintedAt) {
+        boolean isFresh(long now, long windowMs) {
+            return now - mintedAt < windowMs;
+        }
+    }
+}
@@ -20,6 +20,13 @@ public class UserService {
                 .orElseThrow(() -> new UsernameNotFoundException("User with email " + email + " not found"));
         return user;
     }
+    // Called by DaoAuthenticationProvider after a successful login whose hash needs upgrading
+    public UserDetails updatePassword(UserDetails userDetails, String newEncodedPassword) {
+        User user = (User) userDetails;
+        user.setPassword(newEncodedPassword);
+        return authRepo.save(user);
+    }
+
     public User getUserById(Long userId) {
         return authRepo.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User with id " + userId + " not found"));
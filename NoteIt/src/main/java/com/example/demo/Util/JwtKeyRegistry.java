@@ -0,0 +1,141 @@
+package com.example.demo.Util;
+
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Holds the decoded HMAC keys used to sign and verify JWTs. Keys are decoded once and
+ * selected by the {@code kid} header, so secrets can be rotated by editing the optional
+ * keys file (entries {@code keys.<kid>=<hex>} plus {@code active=<kid>}) without a restart.
+ * Tokens without a {@code kid} are verified with {@code jwt.secretKey}.
+ */
+@Component
+@Slf4j
+public class JwtKeyRegistry {
+
+    private static final String DEFAULT_KID = "default";
+
+    @Value("${jwt.secretKey}")
+    private String jwtSecretKey;
+
+    @Value("${jwt.keys-file:}")
+    private String keysFile;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    // Keys and the active kid are swapped together so signing never sees a half-applied rotation
+    private volatile KeySet keySet;
+    private volatile long keysFileModified = -1;
+
+    // JwtParser is immutable and thread-safe; the locator reads the current key map on each call
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        keySet = new KeySet(Map.of(DEFAULT_KID, decode(jwtSecretKey)), DEFAULT_KID);
+        reloadKeysFile();
+        parser = Jwts.parser().keyLocator(this::locate).build();
+    }
+
+    public JwtParser parser() {
+        return parser;
+    }
+
+    // JwtBuilder is mutable, so callers build a fresh one and only the key material is shared
+    public String sign(JwtBuilder builder) {
+        KeySet current = keySet;
+        return builder.header().keyId(current.activeKid()).and()
+                .signWith(current.keys().get(current.activeKid()))
+                .compact();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.keys-file.reload-ms:60000}")
+    public void reloadKeysFile() {
+        if (keysFile == null || keysFile.isBlank()) {
+            return;
+        }
+        Path path = Path.of(keysFile);
+        try {
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            if (modified == keysFileModified) {
+                return;
+            }
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(path)) {
+                properties.load(reader);
+            }
+
+            Map<String, SecretKey> loaded = new HashMap<>();
+            loaded.put(DEFAULT_KID, decode(jwtSecretKey));
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith("keys.")) {
+                    loaded.put(name.substring("keys.".length()), decode(properties.getProperty(name).trim()));
+                }
+            }
+            String active = properties.getProperty("active", DEFAULT_KID).trim();
+            if (!loaded.containsKey(active)) {
+                throw new IllegalStateException("Active key id '" + active + "' has no key");
+            }
+
+            KeySet previous = keySet;
+            keySet = new KeySet(Map.copyOf(loaded), active);
+            keysFileModified = modified;
+            log.info("Loaded {} JWT keys, active kid: {}", loaded.size(), active);
+            // Tokens signed with a dropped or replaced key must fail verification again, not come from the cache
+            if (previous.keys().entrySet().stream().anyMatch(key -> !key.getValue().equals(loaded.get(key.getKey())))) {
+                verifiedTokenCache.clear();
+                log.info("JWT key retired, cleared the verified token cache");
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to load JWT keys file {}, keeping current keys: {}", keysFile, e.getMessage());
+        }
+    }
+
+    private Key locate(Header header) {
+        String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        return keySet.keys().get(kid != null ? kid : DEFAULT_KID);
+    }
+
+    private SecretKey decode(String hex) {
+        try {
+            return Keys.hmacShaKeyFor(hexStringToByteArray(hex));
+        } catch (Exception e) {
+            log.error("Error creating secret key: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to create JWT secret key", e);
+        }
+    }
+
+    private byte[] hexStringToByteArray(String s) {
+        int len = s.length();
+        byte[] data = new byte[len / 2];
+        for (int i = 0; i < len; i += 2) {
+            data[i / 2] = (byte) ((Character.digit(s.charAt(i), 16) << 4)
+                    + Character.digit(s.charAt(i + 1), 16));
+        }
+        return data;
+    }
+
+    private record KeySet(Map<String, SecretKey> keys, String activeKid) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.Util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonType;
+import org.bson.RawBsonDocument;
+
+import java.io.IOException;
+
+/**
+ * Transcodes a stored note straight from its BSON bytes into the JSON shape of
+ * {@link com.example.demo.Dtos.NoteDto}, without building a Note or a NoteDto in between.
+ * Must be kept in step with NoteDto's fields and with how the mapper and Jackson render them.
+ */
+public final class RawNoteJsonWriter {
+
+    private static final String[] STRING_FIELDS = {"title", "content", "userId", "category"};
+    private static final String[] DATE_FIELDS = {"createdAt", "updatedAt"};
+    private static final String[] NUMBER_FIELDS = {"version", "seq"};
+
+    private RawNoteJsonWriter() {
+    }
+
+    public static void write(RawBsonDocument document, JsonGenerator gen) throws IOException {
+        // Bit per NoteDto field, so fields absent from the document still come out as the mapper renders them
+        int seen = 0;
+        gen.writeStartObject();
+        try (BsonBinaryReader reader = new BsonBinaryReader(document.getByteBuffer().asNIO())) {
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                String name = reader.readName();
+                BsonType type = reader.getCurrentBsonType();
+                switch (name) {
+                    case "_id" -> {
+                        gen.writeStringField("id", type == BsonType.OBJECT_ID
+                                ? reader.readObjectId().toHexString()
+                                : reader.readString());
+                        seen |= 1;
+                    }
+                    case "title", "content", "userId", "category" -> {
+                        gen.writeFieldName(name);
+                        if (type == BsonType.STRING) {
+                            gen.writeString(reader.readString());
+                        } else {
+                            skipAsNull(reader, gen);
+                        }
+                        seen |= bit(STRING_FIELDS, name, 1);
+                    }
+                    case "createdAt", "updatedAt" -> {
+                        gen.writeFieldName(name);
+                        if (type == BsonType.DATE_TIME) {
+                            gen.writeNumber(reader.readDateTime()); // BSON dates are epoch millis already
+                        } else {
+                            skipAsNull(reader, gen);
+                        }
+                        seen |= bit(DATE_FIELDS, name, 5);
+                    }
+                    case "isArchived" -> {
+                        // Lombok's isArchived() getter makes Jackson call the property "archived"
+                        gen.writeBooleanField("archived", type == BsonType.BOOLEAN && reader.readBoolean());
+                        if (type != BsonType.BOOLEAN) {
+                            reader.skipValue();
+                        }
+                        seen |= 1 << 7;
+                    }
+                    case "version", "seq" -> {
+                        gen.writeFieldName(name);
+                        switch (type) {
+                            case INT32 -> gen.writeNumber(reader.readInt32());
+                            case INT64 -> gen.writeNumber(reader.readInt64());
+                            case DOUBLE -> gen.writeNumber((long) reader.readDouble());
+                            default -> {
+                                reader.skipValue();
+                                writeAbsentNumber(gen, name);
+                            }
+                        }
+                        seen |= bit(NUMBER_FIELDS, name, 8);
+                    }
+                    default -> reader.skipValue(); // _class, anything NoteDto does not expose
+                }
+            }
+            reader.readEndDocument();
+        }
+        writeMissing(gen, seen);
+        gen.writeEndObject();
+    }
+
+    private static void writeMissing(JsonGenerator gen, int seen) throws IOException {
+        if ((seen & 1) == 0) {
+            gen.writeNullField("id");
+        }
+        for (int i = 0; i < STRING_FIELDS.length; i++) {
+            if ((seen & (1 << (1 + i))) == 0) {
+                gen.writeNullField(STRING_FIELDS[i]);
+            }
+        }
+        for (int i = 0; i < DATE_FIELDS.length; i++) {
+            if ((seen & (1 << (5 + i))) == 0) {
+                gen.writeNullField(DATE_FIELDS[i]);
+            }
+        }
+        if ((seen & (1 << 7)) == 0) {
+            gen.writeBooleanField("archived", false);
+        }
+        for (int i = 0; i < NUMBER_FIELDS.length; i++) {
+            if ((seen & (1 << (8 + i))) == 0) {
+                gen.writeFieldName(NUMBER_FIELDS[i]);
+                writeAbsentNumber(gen, NUMBER_FIELDS[i]);
+            }
+        }
+    }
+
+    // Same as NoteMapper: notes written before versioning match as version 0, a missing seq stays null
+    private static void writeAbsentNumber(JsonGenerator gen, String name) throws IOException {
+        if (name.equals("version")) {
+            gen.writeNumber(0L);
+        } else {
+            gen.writeNull();
+        }
+    }
+
+    private static void skipAsNull(BsonBinaryReader reader, JsonGenerator gen) throws IOException {
+        reader.skipValue();
+        gen.writeNull();
+    }
+
+    private static int bit(String[] fields, String name, int offset) {
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].equals(name)) {
+                return 1 << (offset + i);
+            }
+        }
+        return 0;
+    }
+}
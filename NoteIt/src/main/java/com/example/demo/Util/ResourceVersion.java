@@ -0,0 +1,19 @@
+package com.example.demo.Util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Validators for a conditional GET: a strong ETag and the Last-Modified time in epoch millis.
+ * Built from cheap projections so a matching If-None-Match never loads the resource itself.
+ */
+public record ResourceVersion(String etag, long lastModified) {
+
+    public static ResourceVersion of(String tag, long lastModified) {
+        return new ResourceVersion("\"" + tag + "\"", lastModified);
+    }
+
+    public static long toEpochMillis(LocalDateTime time) {
+        return time == null ? -1 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
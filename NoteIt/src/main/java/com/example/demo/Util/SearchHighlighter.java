@@ -0,0 +1,89 @@
+package com.example.demo.Util;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds a short excerpt around the first match of a text query. Words are matched on a
+ * light suffix-stripped stem so the highlight lines up with what Mongo's stemmer matched.
+ */
+public final class SearchHighlighter {
+
+    private static final int SNIPPET_LENGTH = 160;
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final String[] SUFFIXES = {"ing", "ed", "es", "s"};
+
+    private SearchHighlighter() {
+    }
+
+    public static String snippet(String content, String query) {
+        if (content == null || content.isEmpty()) {
+            return "";
+        }
+        List<String> stems = stems(query);
+        List<int[]> matches = new ArrayList<>();
+        Matcher words = WORD.matcher(content);
+        while (words.find()) {
+            String word = words.group().toLowerCase(Locale.ROOT);
+            if (stems.stream().anyMatch(word::startsWith)) {
+                matches.add(new int[]{words.start(), words.end()});
+            }
+        }
+
+        int start = matches.isEmpty() ? 0 : Math.max(0, matches.get(0)[0] - SNIPPET_LENGTH / 4);
+        int end = Math.min(content.length(), start + SNIPPET_LENGTH);
+
+        StringBuilder out = new StringBuilder(SNIPPET_LENGTH + 32);
+        if (start > 0) {
+            out.append("…");
+        }
+        int cursor = start;
+        for (int[] match : matches) {
+            if (match[0] < start) {
+                continue;
+            }
+            if (match[1] > end) {
+                break;
+            }
+            out.append(HtmlUtils.htmlEscape(content.substring(cursor, match[0])))
+                    .append("<mark>")
+                    .append(HtmlUtils.htmlEscape(content.substring(match[0], match[1])))
+                    .append("</mark>");
+            cursor = match[1];
+        }
+        out.append(HtmlUtils.htmlEscape(content.substring(cursor, end)));
+        if (end < content.length()) {
+            out.append("…");
+        }
+        return out.toString();
+    }
+
+    // Query terms without quotes or negated terms, reduced to a crude stem
+    private static List<String> stems(String query) {
+        List<String> stems = new ArrayList<>();
+        for (String term : query.toLowerCase(Locale.ROOT).split("\\s+")) {
+            if (term.startsWith("-")) {
+                continue;
+            }
+            Matcher word = WORD.matcher(term);
+            while (word.find()) {
+                stems.add(stem(word.group()));
+            }
+        }
+        return stems;
+    }
+
+    private static String stem(String word) {
+        for (String suffix : SUFFIXES) {
+            if (word.length() > suffix.length() + 2 && word.endsWith(suffix)) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        return word;
+    }
+}
@@ -1,78 +1,58 @@
 package com.example.demo.Util;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Value;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
 import java.util.Date;
 
 @Component
+@RequiredArgsConstructor
 public class TokenValidation {
 
-    @Value("${jwt.secretKey}")
-    private String jwtSecretKey;
+    private final JwtKeyRegistry jwtKeyRegistry;
+    private final VerifiedTokenCache verifiedTokenCache;
 
-    private SecretKey getKey() {
-        byte[] keyBytes = hexStringToByteArray(jwtSecretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    private byte[] hexStringToByteArray(String s) {
-        int len = s.length();
-        byte[] data = new byte[len / 2];
-        for (int i = 0; i < len; i += 2) {
-            data[i / 2] = (byte) ((Character.digit(s.charAt(i), 16) << 4)
-                    + Character.digit(s.charAt(i + 1), 16));
+    // Parses and checks the signature at most once per token; callers branch on the returned status
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isBlank()) {
+            return VerifiedToken.INVALID;
         }
-        return data;
-    }
-
-    public boolean isValid(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (ExpiredJwtException e) {
-            return false; // expired
-        } catch (Exception e) {
-            return false; // invalid
+        VerifiedToken cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return cached;
         }
+        VerifiedToken verified = parse(token);
+        verifiedTokenCache.put(token, verified);
+        return verified;
     }
 
-    public boolean isExpired(String token) {
+    private VerifiedToken parse(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getKey())
-                    .build()
+            Claims claims = jwtKeyRegistry.parser()
                     .parseSignedClaims(token)
                     .getPayload();
-
-            return claims.getExpiration().before(new Date());
+            if (claims.getExpiration() != null && claims.getExpiration().before(new Date())) {
+                return VerifiedToken.of(VerifiedToken.Status.EXPIRED, claims);
+            }
+            return VerifiedToken.of(VerifiedToken.Status.VALID, claims);
         } catch (ExpiredJwtException e) {
-            return true; // token is expired
+            return VerifiedToken.of(VerifiedToken.Status.EXPIRED, e.getClaims()); // signature was checked before expiry
         } catch (Exception e) {
-            return true; // invalid token treated as expired
+            return VerifiedToken.INVALID;
         }
     }
 
+    public boolean isValid(String token) {
+        return verify(token).isValid();
+    }
+
+    public boolean isExpired(String token) {
+        return !verify(token).isValid(); // invalid token treated as expired
+    }
+
     public Long extractUserId(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            return Long.parseLong(claims.getSubject());
-        } catch (ExpiredJwtException e) {
-            return Long.parseLong(e.getClaims().getSubject());
-        } catch (Exception e) {
-            return null;
-        }
+        return verify(token).userId();
     }
-}
\ No newline at end of file
+}
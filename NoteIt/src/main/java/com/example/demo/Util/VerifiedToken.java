@@ -0,0 +1,44 @@
+package com.example.demo.Util;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Result of verifying an access token once. The filter stores it as a request
+ * attribute so controllers can read the subject without parsing the token again.
+ */
+public record VerifiedToken(Status status, Long userId, String username, String email, Date expiration) {
+
+    public static final String REQUEST_ATTRIBUTE = "verifiedToken";
+
+    public static final VerifiedToken INVALID = new VerifiedToken(Status.INVALID, null, null, null, null);
+
+    public enum Status {
+        VALID,
+        EXPIRED,
+        INVALID
+    }
+
+    public boolean isValid() {
+        return status == Status.VALID;
+    }
+
+    public boolean isExpired() {
+        return status == Status.EXPIRED;
+    }
+
+    static VerifiedToken of(Status status, Claims claims) {
+        try {
+            return new VerifiedToken(
+                    status,
+                    Long.valueOf(claims.getSubject()),
+                    claims.get("username", String.class),
+                    claims.get("email", String.class),
+                    claims.getExpiration()
+            );
+        } catch (Exception e) {
+            return INVALID; // missing or non-numeric subject
+        }
+    }
+}
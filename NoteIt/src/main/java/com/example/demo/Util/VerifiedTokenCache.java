@@ -0,0 +1,159 @@
+package com.example.demo.Util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of tokens that already passed signature verification, keyed by a SHA-256
+ * of the raw token. Entries are dropped once the token's {@code exp} passes, when their user's
+ * refresh token is revoked, and all at once when a signing key is retired. When the cache
+ * overflows, one caller trims it: expired entries first, then the least recently used ones.
+ * Lookups never take a lock; they only stamp the entry's last access.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>(256);
+    private final AtomicBoolean trimming = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VerifiedTokenCache(@Value("${jwt.token-cache.max-entries:10000}") int maxEntries,
+                              MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        FunctionCounter.builder("jwt.token.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("jwt.token.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("jwt.token.cache.evictions", evictions, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder("jwt.token.cache.size", entries, ConcurrentHashMap::size)
+                .register(meterRegistry);
+    }
+
+    public VerifiedToken get(String token) {
+        String key = hash(token);
+        Entry cached = entries.get(key);
+        long now = System.currentTimeMillis();
+        if (cached != null && isExpired(cached, now)) {
+            if (entries.remove(key, cached)) {
+                evictions.increment();
+            }
+            cached = null;
+        }
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        cached.lastAccess = now;
+        hits.increment();
+        return cached.verified;
+    }
+
+    // Only tokens that verified as VALID and carry an expiry are worth remembering
+    public void put(String token, VerifiedToken verified) {
+        if (!verified.isValid() || verified.expiration() == null) {
+            return;
+        }
+        entries.put(hash(token), new Entry(verified, System.currentTimeMillis()));
+        if (entries.size() > maxEntries && trimming.compareAndSet(false, true)) {
+            try {
+                trim();
+            } finally {
+                trimming.set(false);
+            }
+        }
+    }
+
+    public void invalidate(String token) {
+        if (entries.remove(hash(token)) != null) {
+            evictions.increment();
+        }
+    }
+
+    // Called when a user's refresh token is revoked; their access tokens verify again on next use
+    public void invalidateUser(Long userId) {
+        entries.values().removeIf(entry -> userId.equals(entry.verified.userId()));
+    }
+
+    // Called when a signing key is dropped; entries do not record which key signed them
+    public void clear() {
+        entries.clear();
+    }
+
+    // Trims to 90% so the next few puts do not each pay for a pass. The cutoff comes from a
+    // snapshot of last-access stamps, so entries touched during the trim survive it.
+    private void trim() {
+        purgeExpired();
+        int target = maxEntries - maxEntries / 10;
+        int excess = entries.size() - target;
+        if (excess <= 0) {
+            return;
+        }
+        long[] accessed = entries.values().stream().mapToLong(entry -> entry.lastAccess).sorted().toArray();
+        long cutoff = accessed[Math.min(excess, accessed.length) - 1];
+        var it = entries.values().iterator();
+        while (entries.size() > target && it.hasNext()) {
+            if (it.next().lastAccess <= cutoff) {
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.token-cache.purge-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        var it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (isExpired(it.next(), now)) {
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return entry.verified.expiration().getTime() <= now;
+    }
+
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Entry {
+        final VerifiedToken verified;
+        volatile long lastAccess;
+
+        Entry(VerifiedToken verified, long lastAccess) {
+            this.verified = verified;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
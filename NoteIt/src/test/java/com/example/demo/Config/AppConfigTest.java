@@ -0,0 +1,26 @@
+package com.example.demo.Config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AppConfigTest {
+
+    private final AppConfig config = new AppConfig();
+
+    @Test
+    void argon2EncodesAndStillMatchesBcryptHashes() {
+        PasswordEncoder bcrypt = config.passwordEncoder(new SimpleMeterRegistry(), "bcrypt", 4, 1, 10);
+        PasswordEncoder argon2 = config.passwordEncoder(new SimpleMeterRegistry(), "argon2", 4, 1, 10);
+
+        String legacy = bcrypt.encode("secret");
+        String hash = argon2.encode("secret");
+
+        assertThat(hash).startsWith("{argon2}");
+        assertThat(argon2.matches("secret", hash)).isTrue();
+        assertThat(argon2.matches("secret", legacy)).isTrue();
+        assertThat(argon2.upgradeEncoding(legacy)).isTrue();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.Config;
+
+import com.example.demo.Dtos.NoteDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares a page of notes written by Boot's default mapper (ISO-8601 dates) with the configured
+ * one (epoch millis, Blackbird). Serialization time is measured by JacksonBenchmark in the
+ * benchmarks profile, not here.
+ */
+class JacksonConfigTest {
+
+    private static final int NOTES = 1000;
+
+    @Test
+    void configuredMapperWritesSmallerNotePages() throws IOException {
+        List<NoteDto> notes = fixture();
+
+        byte[] before = bootDefaultMapper().writeValueAsBytes(notes);
+        byte[] after = configuredMapper().writeValueAsBytes(notes);
+
+        assertThat(after.length).isLessThan(before.length);
+    }
+
+    @Test
+    void datesRoundTripAsEpochMillisAndIsoIsStillAccepted() throws IOException {
+        ObjectMapper mapper = configuredMapper();
+        NoteDto note = fixture().getFirst();
+
+        String json = mapper.writeValueAsString(note);
+        NoteDto read = mapper.readValue(json, NoteDto.class);
+        List<NoteDto> legacy = mapper.readValue(bootDefaultMapper().writeValueAsString(List.of(note)), new TypeReference<>() { });
+
+        assertThat(json).doesNotContain("\"createdAt\":\"");
+        assertThat(read.getCreatedAt()).isEqualTo(note.getCreatedAt().truncatedTo(ChronoUnit.MILLIS));
+        assertThat(legacy.getFirst().getCreatedAt()).isEqualTo(note.getCreatedAt());
+    }
+
+    // Shared with JacksonBenchmark. What Boot built before JacksonConfig existed: ISO-8601 strings for java.time values
+    static ObjectMapper bootDefaultMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    static ObjectMapper configuredMapper() {
+        JacksonConfig config = new JacksonConfig();
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        builder.modulesToInstall(config.blackbirdModule());
+        config.jacksonCustomizer(false).customize(builder);
+        return builder.build();
+    }
+
+    static List<NoteDto> fixture() {
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_456_789);
+        List<NoteDto> notes = new ArrayList<>(NOTES);
+        for (int i = 0; i < NOTES; i++) {
+            NoteDto note = new NoteDto();
+            note.setId("%024x".formatted(i));
+            note.setTitle("Meeting notes " + i);
+            note.setContent("Discussed the roadmap, action items for item " + i + " and follow-ups for next week.");
+            note.setUserId("42");
+            note.setCreatedAt(base.plusMinutes(i));
+            note.setUpdatedAt(base.plusMinutes(i).plusSeconds(37));
+            note.setCategory(i % 3 == 0 ? "work" : "personal");
+            note.setArchived(i % 10 == 0);
+            note.setVersion((long) i % 5);
+            note.setSeq((long) i + 1);
+            notes.add(note);
+        }
+        return notes;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.Config;
+
+import com.example.demo.Repo.mongo.NoteRepository;
+import com.example.demo.Repo.mongo.NoteRepositoryCustomImpl;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MongoQueryRecorderTest {
+
+    private final MongoQueryRecorder recorder = new MongoQueryRecorder();
+    private MongoServer server;
+    private MongoClient client;
+    private NoteRepository noteRepository;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString("mongodb://" + address.getHostString() + ":" + address.getPort()))
+                .addCommandListener(recorder)
+                .build());
+        MongoTemplate mongoTemplate = new MongoTemplate(client, "noteit-test");
+        noteRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(NoteRepository.class,
+                RepositoryFragments.just(new NoteRepositoryCustomImpl(mongoTemplate)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void recordsTheCommandsARepositoryMethodSends() {
+        List<BsonDocument> commands = recorder.record(() -> noteRepository.findByUserIdAndCategory("ada", "work"));
+
+        assertThat(commands).singleElement().satisfies(command -> {
+            assertThat(command.getFirstKey()).isEqualTo("find");
+            assertThat(command.getDocument("filter").getString("userId").getValue()).isEqualTo("ada");
+            assertThat(command.getDocument("filter").getString("category").getValue()).isEqualTo("work");
+        });
+    }
+
+    @Test
+    void recordsNothingOutsideARecording() {
+        recorder.record(() -> { });
+        noteRepository.findByUserId("ada");
+
+        assertThat(recorder.record(() -> { })).isEmpty();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.Mappers;
+
+import com.example.demo.Dtos.NoteDto;
+import com.example.demo.Entities.Note;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NoteMapperTest {
+
+    private final NoteMapper noteMapper = new NoteMapper();
+
+    @Test
+    void toDtoMatchesModelMapperOnEveryField() {
+        Note note = fullNote();
+
+        NoteDto dto = noteMapper.toDto(note);
+
+        assertThat(dto).hasNoNullFieldsOrProperties();
+        assertThat(dto).usingRecursiveComparison().isEqualTo(new ModelMapper().map(note, NoteDto.class));
+    }
+
+    @Test
+    void toEntityCopiesOnlyClientFields() {
+        NoteDto dto = new ModelMapper().map(fullNote(), NoteDto.class);
+
+        Note note = noteMapper.toEntity(dto);
+
+        assertThat(note).usingRecursiveComparison()
+                .ignoringFields("createdAt", "updatedAt", "version", "seq", "score")
+                .isEqualTo(new ModelMapper().map(dto, Note.class));
+        assertThat(note).extracting(Note::getCreatedAt, Note::getUpdatedAt, Note::getVersion, Note::getSeq)
+                .containsOnlyNulls();
+    }
+
+    @Test
+    void noteWithoutStoredVersionIsServedAsVersionZero() {
+        Note legacy = new Note("Title", "Content", "user-1");
+        legacy.setId("64b7f0c2a1b2c3d4e5f60718");
+
+        NoteDto dto = noteMapper.toDto(legacy);
+
+        assertThat(dto.getVersion()).isZero();
+    }
+
+    private static Note fullNote() {
+        Note note = new Note("Title", "Content", "user-1");
+        note.setId("64b7f0c2a1b2c3d4e5f60718");
+        note.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+        note.setUpdatedAt(LocalDateTime.of(2024, 2, 3, 4, 5, 6));
+        note.setCategory("work");
+        note.setArchived(true);
+        note.setVersion(7L);
+        note.setSeq(42L);
+        return note;
+    }
+}
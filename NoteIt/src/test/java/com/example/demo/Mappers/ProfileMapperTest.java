@@ -0,0 +1,25 @@
+package com.example.demo.Mappers;
+
+import com.example.demo.Dtos.ProfileDTO;
+import com.example.demo.Entities.Profile;
+import com.example.demo.Entities.User;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfileMapperTest {
+
+    @Test
+    void toDtoMatchesModelMapperOnEveryField() {
+        User user = new User();
+        user.setId(11L);
+        Profile profile = new Profile(3L, user, "Ada", "https://example.com/ada.png", "Analyst", "busy",
+                1_700_000_000_000L, 1_700_000_100_000L);
+
+        ProfileDTO dto = new ProfileMapper().toDto(profile);
+
+        assertThat(dto).hasNoNullFieldsOrProperties();
+        assertThat(dto).usingRecursiveComparison().isEqualTo(new ModelMapper().map(profile, ProfileDTO.class));
+    }
+}
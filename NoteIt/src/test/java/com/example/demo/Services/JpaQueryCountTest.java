@@ -0,0 +1,152 @@
+package com.example.demo.Services;
+
+import com.example.demo.Dtos.LoginResponseDto;
+import com.example.demo.Dtos.ProfileDTO;
+import com.example.demo.Entities.RefreshToken;
+import com.example.demo.Entities.User;
+import com.example.demo.Mappers.ProfileMapper;
+import com.example.demo.Repo.jpa.AuthRepo;
+import com.example.demo.Repo.jpa.ProfileRepo;
+import com.example.demo.Repo.jpa.RefreshTokenRepository;
+import com.example.demo.Util.VerifiedTokenCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fixed statement counts for the profile and refresh-token paths, read from Hibernate statistics.
+ * Tests run outside a test transaction so every repository call pays its own round trips, as it
+ * does in production; a count going up means an association started loading eagerly again.
+ */
+@DataJpaTest(properties = {
+        "spring.application.name=noteit-test",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "profiles.batch.window-ms=1"
+})
+@Import({ProfileService.class, ProfileBatchLoader.class, ProfileMapper.class, RefreshTokenService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JpaQueryCountTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AuthRepo authRepo;
+
+    @Autowired
+    private ProfileRepo profileRepo;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private ProfileService profileService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private TokenRefreshCoordinator tokenRefreshCoordinator;
+
+    @MockitoBean
+    private VerifiedTokenCache verifiedTokenCache;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        when(jwtService.generateAccessToken(any())).thenReturn("access-token");
+        when(jwtService.generateRefreshToken(any())).thenReturn("rotated-refresh-token");
+        when(jwtService.getRefreshExpiration()).thenReturn(3_600_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        profileRepo.deleteAll();
+        authRepo.deleteAll();
+    }
+
+    @Test
+    void profileLookupIsOneQueryAndNoneWhenCached() {
+        User user = createUserWithProfile("ada");
+
+        statistics.clear();
+        ProfileDTO profile = profileService.getProfile(user.getId());
+        assertThat(profile.getUserId()).isEqualTo(user.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).as("users must not be loaded").isEqualTo(1);
+
+        statistics.clear();
+        profileService.getProfile(user.getId());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void profileBatchIsOneQueryWhateverTheSize() {
+        List<Long> userIds = List.of(
+                createUserWithProfile("ada").getId(),
+                createUserWithProfile("grace").getId(),
+                createUserWithProfile("linus").getId());
+
+        statistics.clear();
+        List<ProfileDTO> profiles = profileService.getProfilesByUserIds(userIds);
+        assertThat(profiles).extracting(ProfileDTO::getUserId).containsExactlyInAnyOrderElementsOf(userIds);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).as("users must not be loaded").isEqualTo(3);
+    }
+
+    @Test
+    void refreshLoadsTokenAndUserTogether() {
+        User user = createUserWithProfile("ada");
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .token("refresh-token")
+                .expiryDate(Instant.now().plusSeconds(3600))
+                .revoked(false)
+                .createdAt(Instant.now())
+                .build());
+
+        statistics.clear();
+        ResponseEntity<LoginResponseDto> response = refreshTokenService.handleRefresh("refresh-token");
+
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(response.getBody().getUsername()).isEqualTo("ada");
+        // token joined with its user, the token again by user id, then the merge select and the update of the rotation
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    private User createUserWithProfile(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("{noop}secret");
+        user = authRepo.save(user);
+        profileService.createProfile(user, name);
+        return user;
+    }
+}
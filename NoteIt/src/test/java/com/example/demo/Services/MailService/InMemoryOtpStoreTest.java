@@ -0,0 +1,55 @@
+package com.example.demo.Services.MailService;
+
+import com.example.demo.Advice.ApiExceptions;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryOtpStoreTest {
+
+    @Test
+    void otpVerifiesOnceWithinItsTtl() {
+        InMemoryOtpStore store = new InMemoryOtpStore(300, 10, 5);
+        store.save("ada@example.com", "123456");
+
+        assertThat(store.verify("ada@example.com", "654321")).isFalse();
+        assertThat(store.verify("ada@example.com", "123456")).isTrue();
+        assertThat(store.verify("ada@example.com", "123456")).as("an OTP is single-use").isFalse();
+    }
+
+    @Test
+    void expiredOtpIsRejected() {
+        InMemoryOtpStore store = new InMemoryOtpStore(0, 10, 5);
+        store.save("ada@example.com", "123456");
+
+        assertThat(store.verify("ada@example.com", "123456")).isFalse();
+    }
+
+    @Test
+    void storeRejectsNewEmailsWhenFullUntilExpiredEntriesAreSwept() throws InterruptedException {
+        InMemoryOtpStore store = new InMemoryOtpStore(0, 1, 5);
+        store.save("ada@example.com", "123456");
+        // Re-sending to a pending email replaces its entry rather than taking a new one
+        store.save("ada@example.com", "234567");
+
+        assertThatThrownBy(() -> store.save("grace@example.com", "345678")).isInstanceOf(ApiExceptions.class);
+
+        // Let the slot the entry was filed under close, then tick past it
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000 + 50);
+        store.tick();
+
+        store.save("grace@example.com", "345678");
+    }
+
+    @Test
+    void otpIsInvalidatedAfterTooManyAttempts() {
+        InMemoryOtpStore store = new InMemoryOtpStore(300, 10, 3);
+        store.save("ada@example.com", "123456");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.verify("ada@example.com", "000000")).isFalse();
+        }
+        assertThat(store.verify("ada@example.com", "123456")).isFalse();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.demo.Services.MailService;
+
+import com.example.demo.Entities.OutboxMail;
+import com.example.demo.Repo.mongo.OutboxMailRepository;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The dispatcher against an in-memory Mongo outbox and a stub sender standing in for SMTP.
+ */
+class MailDispatcherTest {
+
+    private MongoServer server;
+    private MongoClient client;
+    private OutboxMailRepository outboxMailRepository;
+    private StubMailSender mailSender;
+    private MailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        MongoTemplate mongoTemplate = new MongoTemplate(client, "noteit-test");
+        outboxMailRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(OutboxMailRepository.class);
+
+        mailSender = new StubMailSender();
+        // One worker, two attempts and no backoff so a retry is claimable on the next poll
+        dispatcher = new MailDispatcher(mailSender, outboxMailRepository, mongoTemplate,
+                1, 10, 20, 2, 0, 300_000, 60_000, false);
+        dispatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.stop();
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void sentMailIsDeliveredAndRemovedFromTheOutbox() {
+        dispatcher.enqueue("ada@example.com", "Your code", "123456");
+
+        await(() -> outboxMailRepository.count() == 0);
+        assertThat(mailSender.sent).singleElement().satisfies(message -> {
+            assertThat(message.getTo()).containsExactly("ada@example.com");
+            assertThat(message.getText()).isEqualTo("123456");
+        });
+    }
+
+    @Test
+    void mailThatKeepsFailingIsMarkedFailedWithoutItsBody() {
+        mailSender.failing = true;
+        dispatcher.enqueue("ada@example.com", "Your code", "123456");
+
+        await(() -> attempts() == 1);
+        dispatcher.pollOutbox();
+        await(() -> attempts() == 2);
+
+        OutboxMail failed = outboxMailRepository.findAll().getFirst();
+        assertThat(failed.getStatus()).isEqualTo(OutboxMail.Status.FAILED);
+        assertThat(failed.getText()).isNull();
+        assertThat(failed.getExpireAt()).isAfter(Instant.now());
+        assertThat(mailSender.sent).isEmpty();
+    }
+
+    @Test
+    void mailClaimedByAnotherDispatcherWhileQueuedIsNotSent() throws InterruptedException {
+        // The worker is stuck sending the first mail while the second waits in the queue
+        mailSender.blocked = new CountDownLatch(1);
+        dispatcher.enqueue("ada@example.com", "Your code", "123456");
+        await(() -> mailSender.sending == 1);
+        dispatcher.enqueue("grace@example.com", "Your code", "654321");
+
+        // Its lease ran out and another replica's poll claimed it
+        OutboxMail queued = outboxMailRepository.findAll().stream()
+                .filter(mail -> mail.getTo().equals("grace@example.com"))
+                .findFirst().orElseThrow();
+        queued.setClaimedAt(queued.getClaimedAt().plusSeconds(1));
+        outboxMailRepository.save(queued);
+        mailSender.blocked.countDown();
+
+        await(() -> outboxMailRepository.count() == 1);
+        Thread.sleep(200);
+        assertThat(mailSender.sent).extracting(message -> message.getTo()[0]).containsExactly("ada@example.com");
+        assertThat(outboxMailRepository.findAll()).singleElement()
+                .satisfies(mail -> assertThat(mail.getClaimedAt()).isEqualTo(queued.getClaimedAt()));
+    }
+
+    private int attempts() {
+        List<OutboxMail> mails = outboxMailRepository.findAll();
+        return mails.isEmpty() ? 0 : mails.getFirst().getAttempts();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static class StubMailSender extends JavaMailSenderImpl {
+        final List<SimpleMailMessage> sent = new CopyOnWriteArrayList<>();
+        volatile boolean failing;
+        volatile CountDownLatch blocked;
+        volatile int sending;
+
+        @Override
+        public void send(SimpleMailMessage... messages) {
+            sending++;
+            if (blocked != null) {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failing) {
+                throw new MailSendException("connection refused");
+            }
+            sent.addAll(List.of(messages));
+        }
+    }
+}
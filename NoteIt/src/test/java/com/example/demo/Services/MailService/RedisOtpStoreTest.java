@@ -0,0 +1,117 @@
+package com.example.demo.Services.MailService;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The store against a real redis-server, so TTLs and the single-use delete run on the server.
+ */
+class RedisOtpStoreTest {
+
+    private static RedisServer server;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new RedisServer(port);
+        server.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        server.stop();
+    }
+
+    @BeforeEach
+    @AfterEach
+    void flush() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+    }
+
+    @Test
+    void otpVerifiesOnceWithinItsTtl() {
+        RedisOtpStore store = new RedisOtpStore(redisTemplate, 300, 5);
+        store.save("ada@example.com", "123456");
+
+        assertThat(store.verify("ada@example.com", "654321")).isFalse();
+        assertThat(store.verify("ada@example.com", "123456")).isTrue();
+        assertThat(store.verify("ada@example.com", "123456")).as("an OTP is single-use").isFalse();
+        assertThat(redisTemplate.keys("otp:*")).isEmpty();
+    }
+
+    @Test
+    void otpExpiresWithItsKey() throws InterruptedException {
+        RedisOtpStore store = new RedisOtpStore(redisTemplate, 1, 5);
+        store.save("ada@example.com", "123456");
+        assertThat(redisTemplate.getExpire("otp:ada@example.com")).isPositive();
+
+        Thread.sleep(1100);
+
+        assertThat(store.verify("ada@example.com", "123456")).isFalse();
+        assertThat(redisTemplate.hasKey("otp:ada@example.com")).isFalse();
+    }
+
+    @Test
+    void concurrentCorrectGuessesSucceedOnlyOnce() throws Exception {
+        RedisOtpStore store = new RedisOtpStore(redisTemplate, 300, 50);
+        store.save("ada@example.com", "123456");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> guesses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                guesses.add(() -> store.verify("ada@example.com", "123456"));
+            }
+            int successes = 0;
+            for (Future<Boolean> result : executor.invokeAll(guesses)) {
+                successes += result.get() ? 1 : 0;
+            }
+            assertThat(successes).isEqualTo(1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void otpIsInvalidatedAfterTooManyAttempts() {
+        RedisOtpStore store = new RedisOtpStore(redisTemplate, 300, 3);
+        store.save("ada@example.com", "123456");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.verify("ada@example.com", "000000")).isFalse();
+        }
+        assertThat(store.verify("ada@example.com", "123456")).isFalse();
+        assertThat(redisTemplate.hasKey("otp:ada@example.com")).isFalse();
+    }
+}
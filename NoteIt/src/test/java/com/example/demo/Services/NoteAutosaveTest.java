@@ -0,0 +1,124 @@
+package com.example.demo.Services;
+
+import com.example.demo.Dtos.NoteDto;
+import com.example.demo.Entities.Note;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class NoteAutosaveTest {
+
+    private NoteFixture fixture;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new NoteFixture();
+        mockMvc = fixture.mockMvc();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.close();
+    }
+
+    @Test
+    void autosaveToMissingNoteIsNotFound() throws Exception {
+        autosave(new ObjectId().toHexString(), "lost edit").andExpect(status().isNotFound());
+
+        assertThat(fixture.noteRepository.count()).isZero();
+    }
+
+    @Test
+    void autosaveIsAcceptedAndLandsOnFlush() throws Exception {
+        NoteDto note = fixture.createNote("Title", "first");
+
+        autosave(note.getId(), "second").andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.version").value(note.getVersion() + 1));
+        autosave(note.getId(), "third").andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.version").value(note.getVersion() + 1));
+        fixture.writeBehindBuffer.flushAll();
+
+        Note stored = fixture.noteRepository.findById(note.getId()).orElseThrow();
+        assertThat(stored.getContent()).isEqualTo("third");
+        assertThat(stored.getVersion()).isEqualTo(note.getVersion() + 1);
+
+        // The next burst starts from what the first one wrote
+        autosave(note.getId(), "fourth").andExpect(jsonPath("$.version").value(note.getVersion() + 2));
+    }
+
+    @Test
+    void failureAfterTheBulkWriteDoesNotRequeueLandedEdits() throws Exception {
+        NoteDto note = fixture.createNote("Title", "first");
+        doThrow(new IllegalStateException("index down")).when(fixture.noteTitleIndex).put(any());
+
+        NoteDto autosave = new NoteDto();
+        autosave.setTitle("Retitled");
+        fixture.noteService.autosaveNote(note.getId(), autosave);
+        fixture.writeBehindBuffer.flushAll();
+        fixture.writeBehindBuffer.flushAll();
+
+        assertThat(fixture.writeBehindBuffer.hasPending(note.getId())).isFalse();
+        assertThat(fixture.noteRepository.findById(note.getId()).orElseThrow().getVersion())
+                .isEqualTo(note.getVersion() + 1);
+    }
+
+    @Test
+    void listIsNotReportedUnchangedWhileAutosavesArePending() throws Exception {
+        NoteDto note = fixture.createNote("Title", "first");
+        String etag = listNotes(null).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        autosave(note.getId(), "second").andExpect(status().isAccepted());
+        listNotes(etag).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].content").value("second"));
+
+        fixture.writeBehindBuffer.flushAll();
+        String flushed = listNotes(etag).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        listNotes(flushed).andExpect(status().isNotModified());
+    }
+
+    @Test
+    void fullBufferRefusesNewNotesButKeepsMergingBufferedOnes() throws Exception {
+        NoteDto first = fixture.createNote("Title", "first");
+        NoteDto second = fixture.createNote("Title", "second");
+        NoteDto third = fixture.createNote("Title", "third");
+
+        autosave(first.getId(), "first edit").andExpect(status().isAccepted());
+        autosave(second.getId(), "second edit").andExpect(status().isAccepted());
+
+        autosave(third.getId(), "third edit")
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        autosave(first.getId(), "first edit again").andExpect(status().isAccepted());
+
+        fixture.writeBehindBuffer.flushAll();
+        autosave(third.getId(), "third edit").andExpect(status().isAccepted());
+    }
+
+    private ResultActions autosave(String id, String content) throws Exception {
+        return mockMvc.perform(put("/api/notes/{id}/autosave", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"content\": \"%s\"}".formatted(content)));
+    }
+
+    private ResultActions listNotes(String ifNoneMatch) throws Exception {
+        var request = get("/api/notes/user/{userId}", NoteFixture.USER);
+        return mockMvc.perform(ifNoneMatch != null ? request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch) : request);
+    }
+}
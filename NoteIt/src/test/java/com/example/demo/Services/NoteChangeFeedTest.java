@@ -0,0 +1,153 @@
+package com.example.demo.Services;
+
+import com.example.demo.Controllers.NoteController;
+import com.example.demo.Util.VerifiedToken;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Date;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The SSE endpoint over a feed that is handed change events directly, since the in-memory Mongo
+ * used by the other tests has no change streams.
+ */
+class NoteChangeFeedTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NoteChangeFeed feed;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        // Never started, so no watcher thread; events come from publish()
+        feed = new NoteChangeFeed(mock(MongoTemplate.class), meterRegistry, true, 60_000, 100);
+        NoteController controller = new NoteController();
+        ReflectionTestUtils.setField(controller, "noteChangeFeed", feed);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        feed.stop();
+    }
+
+    @Test
+    void onlyTheOwnerMaySubscribe() throws Exception {
+        mockMvc.perform(get("/api/notes/user/{userId}/events", "1")
+                        .requestAttr(VerifiedToken.REQUEST_ATTRIBUTE, caller(2L)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/notes/user/{userId}/events", "1"))
+                .andExpect(status().isForbidden());
+
+        assertThat(subscribers()).isZero();
+    }
+
+    @Test
+    void subscriberReceivesChangesToTheirOwnNotesOnly() throws Exception {
+        MvcResult result = subscribe("1", null);
+        String mine = new ObjectId().toHexString();
+        String theirs = new ObjectId().toHexString();
+
+        feed.publish(change("t1", "update", mine, "1"));
+        feed.publish(change("t2", "update", theirs, "2"));
+        feed.publish(change("t3", "insert", mine, "1"));
+
+        await(() -> body(result.getResponse()).contains("id:t3"));
+        String body = body(result.getResponse());
+        assertThat(body).contains("id:t1", "event:updated", "event:created", mine).doesNotContain("t2", theirs);
+    }
+
+    @Test
+    void reconnectReplaysEventsAfterTheLastEventId() throws Exception {
+        String note = new ObjectId().toHexString();
+        feed.publish(change("t1", "update", note, "1"));
+        feed.publish(change("t2", "update", note, "1"));
+        feed.publish(change("t3", "update", note, "1"));
+
+        MvcResult resumed = subscribe("1", "t1");
+        await(() -> body(resumed.getResponse()).contains("id:t3"));
+        assertThat(body(resumed.getResponse())).contains("id:t2").doesNotContain("id:t1");
+
+        // Too old for the replay buffer: the client is told to refetch instead
+        MvcResult stale = subscribe("1", "gone");
+        await(() -> body(stale.getResponse()).contains("event:reset"));
+    }
+
+    @Test
+    void disconnectUnsubscribes() throws Exception {
+        MvcResult result = subscribe("1", null);
+        assertThat(subscribers()).isEqualTo(1);
+
+        result.getRequest().getAsyncContext().complete();
+
+        await(() -> subscribers() == 0);
+    }
+
+    private MvcResult subscribe(String userId, String lastEventId) throws Exception {
+        var request = get("/api/notes/user/{userId}/events", userId)
+                .requestAttr(VerifiedToken.REQUEST_ATTRIBUTE, caller(Long.parseLong(userId)));
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private double subscribers() {
+        return meterRegistry.get("notes.change-feed.subscribers").gauge().value();
+    }
+
+    private static VerifiedToken caller(Long userId) {
+        return new VerifiedToken(VerifiedToken.Status.VALID, userId, "user" + userId, null,
+                new Date(System.currentTimeMillis() + 60_000));
+    }
+
+    private static ChangeStreamDocument<Document> change(String token, String operation, String noteId, String userId) {
+        Document after = new Document("userId", userId).append("version", 1L).append("seq", 1L);
+        return new ChangeStreamDocument<>(operation, new BsonDocument("_data", new BsonString(token)), null, null,
+                after, null, new BsonDocument("_id", new BsonObjectId(new ObjectId(noteId))),
+                null, null, null, null, null, null, null);
+    }
+
+    private static String body(MockHttpServletResponse response) {
+        try {
+            return response.getContentAsString();
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.Services;
+
+import com.example.demo.Dtos.NoteDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class NoteDeltaTest {
+
+    private NoteFixture fixture;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new NoteFixture();
+        mockMvc = fixture.mockMvc();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.close();
+    }
+
+    @Test
+    void deltaAgainstVersionBeforeAnAutosaveIsRejected() throws Exception {
+        NoteDto note = fixture.createNote("Title", "hello world");
+        long readVersion = note.getVersion();
+
+        NoteDto autosave = new NoteDto();
+        autosave.setContent("hello brave new world");
+        fixture.noteService.autosaveNote(note.getId(), autosave);
+
+        // Positions computed against "hello world" would land mid-word in the autosaved text
+        mockMvc.perform(post("/api/notes/{id}/delta", note.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(delta(readVersion, 6, 5, "there")))
+                .andExpect(status().isConflict());
+
+        NoteDto stored = fixture.noteService.getNoteById(note.getId()).orElseThrow();
+        assertThat(stored.getContent()).isEqualTo("hello brave new world");
+        assertThat(stored.getVersion()).isEqualTo(readVersion + 1);
+    }
+
+    @Test
+    void deltaAgainstTheVersionReturnedByAutosaveApplies() throws Exception {
+        NoteDto note = fixture.createNote("Title", "hello world");
+
+        NoteDto autosave = new NoteDto();
+        autosave.setContent("hello brave new world");
+        long autosaved = fixture.noteService.autosaveNote(note.getId(), autosave).getVersion();
+        assertThat(fixture.noteService.getNoteById(note.getId()).orElseThrow().getVersion()).isEqualTo(autosaved);
+
+        mockMvc.perform(post("/api/notes/{id}/delta", note.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(delta(autosaved, 6, 5, "bold")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(autosaved + 1));
+
+        assertThat(fixture.noteService.getNoteById(note.getId()).orElseThrow().getContent()).isEqualTo("hello bold new world");
+    }
+
+    @Test
+    void deltaAgainstCurrentVersionApplies() throws Exception {
+        NoteDto note = fixture.createNote("Title", "hello world");
+
+        mockMvc.perform(post("/api/notes/{id}/delta", note.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(delta(note.getVersion(), 6, 5, "there")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(note.getVersion() + 1));
+
+        assertThat(fixture.noteService.getNoteById(note.getId()).orElseThrow().getContent()).isEqualTo("hello there");
+    }
+
+    private static String delta(long baseVersion, int position, int deleteCount, String insert) {
+        return """
+                {"baseVersion": %d, "ops": [{"position": %d, "deleteCount": %d, "insert": "%s"}]}
+                """.formatted(baseVersion, position, deleteCount, insert);
+    }
+}
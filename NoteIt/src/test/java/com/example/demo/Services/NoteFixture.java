@@ -0,0 +1,98 @@
+package com.example.demo.Services;
+
+import com.example.demo.Controllers.NoteController;
+import com.example.demo.Dtos.NoteDto;
+import com.example.demo.Mappers.NoteMapper;
+import com.example.demo.Repo.mongo.NoteRepository;
+import com.example.demo.Repo.mongo.NoteRepositoryCustomImpl;
+import com.example.demo.Repo.mongo.NoteTombstoneRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.net.InetSocketAddress;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * The note services wired by hand against an in-memory Mongo server, so tests exercise the real
+ * repository queries and updates without a database or a Spring context. Close it after each test.
+ */
+class NoteFixture implements AutoCloseable {
+
+    static final String USER = "user-1";
+
+    final MongoServer server;
+    final MongoClient client;
+    final MongoTemplate mongoTemplate;
+    final NoteRepository noteRepository;
+    final NoteTombstoneRepository noteTombstoneRepository;
+    final NoteSequence noteSequence;
+    final NoteTitleIndex noteTitleIndex;
+    final NoteWriteBehindBuffer writeBehindBuffer;
+    final NoteService noteService;
+    final NoteController noteController;
+
+    NoteFixture() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        mongoTemplate = new MongoTemplate(client, "noteit-test");
+
+        MongoRepositoryFactory factory = new MongoRepositoryFactory(mongoTemplate);
+        noteRepository = factory.getRepository(NoteRepository.class,
+                RepositoryFragments.just(new NoteRepositoryCustomImpl(mongoTemplate)));
+        noteTombstoneRepository = factory.getRepository(NoteTombstoneRepository.class);
+
+        noteSequence = new NoteSequence(mongoTemplate, 30_000, 600_000);
+        noteTitleIndex = mock(NoteTitleIndex.class);
+        // Long window and delay: only explicit flushes write, so tests control when autosaves land.
+        // Room for two buffered notes, so the cap is easy to reach.
+        writeBehindBuffer = new NoteWriteBehindBuffer(mongoTemplate, noteTitleIndex, noteSequence,
+                new SimpleMeterRegistry(), 60_000, 60_000, 2);
+
+        noteService = new NoteService();
+        ReflectionTestUtils.setField(noteService, "noteRepository", noteRepository);
+        ReflectionTestUtils.setField(noteService, "noteMapper", new NoteMapper());
+        ReflectionTestUtils.setField(noteService, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(noteService, "noteTitleIndex", noteTitleIndex);
+        ReflectionTestUtils.setField(noteService, "writeBehindBuffer", writeBehindBuffer);
+        ReflectionTestUtils.setField(noteService, "noteSequence", noteSequence);
+        ReflectionTestUtils.setField(noteService, "noteTombstoneRepository", noteTombstoneRepository);
+        ReflectionTestUtils.setField(noteService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(noteService, "maxPageSize", 200);
+        ReflectionTestUtils.setField(noteService, "maxSearchResults", 50);
+        ReflectionTestUtils.setField(noteService, "maxSuggestions", 10);
+
+        noteController = new NoteController();
+        ReflectionTestUtils.setField(noteController, "noteService", noteService);
+    }
+
+    MockMvc mockMvc() {
+        return MockMvcBuilders.standaloneSetup(noteController).build();
+    }
+
+    // Created through the service, so the note carries a version and seq like a real one
+    NoteDto createNote(String title, String content) {
+        NoteDto note = new NoteDto();
+        note.setTitle(title);
+        note.setContent(content);
+        note.setUserId(USER);
+        return noteService.createNote(note);
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        server.shutdownNow();
+    }
+}
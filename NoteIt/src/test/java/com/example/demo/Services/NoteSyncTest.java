@@ -0,0 +1,83 @@
+package com.example.demo.Services;
+
+import com.example.demo.Dtos.NoteChangesDto;
+import com.example.demo.Dtos.NoteDto;
+import com.example.demo.Entities.Note;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.example.demo.Services.NoteFixture.USER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NoteSyncTest {
+
+    private NoteFixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new NoteFixture();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.close();
+    }
+
+    @Test
+    void syncDoesNotMovePastASeqStillInFlight() {
+        NoteDto first = fixture.createNote("first", "first content");
+        NoteChangesDto initial = fixture.noteService.getChangesSince(USER, 0, 50);
+        assertThat(initial.getLatestSeq()).isEqualTo(first.getSeq());
+
+        // A slow writer holds the next seq while a faster one commits after it
+        long slowSeq = fixture.noteSequence.next(USER);
+        NoteDto fast = fixture.createNote("fast", "fast content");
+        assertThat(fast.getSeq()).isGreaterThan(slowSeq);
+
+        NoteChangesDto blocked = fixture.noteService.getChangesSince(USER, initial.getLatestSeq(), 50);
+        assertThat(blocked.getNotes()).isEmpty();
+        assertThat(blocked.getLatestSeq()).isEqualTo(initial.getLatestSeq());
+
+        Note slow = new Note("slow", "slow", USER);
+        slow.setSeq(slowSeq);
+        fixture.noteRepository.save(slow);
+        fixture.noteSequence.release(USER, slowSeq);
+
+        NoteChangesDto caughtUp = fixture.noteService.getChangesSince(USER, blocked.getLatestSeq(), 50);
+        assertThat(caughtUp.getNotes()).extracting(NoteDto::getTitle).containsExactly("slow", "fast");
+        assertThat(caughtUp.getLatestSeq()).isEqualTo(fast.getSeq());
+    }
+
+    @Test
+    void deleteIsVisibleOnceItsTombstoneIsWritten() {
+        NoteDto note = fixture.createNote("doomed", "doomed content");
+        fixture.noteService.deleteNote(note.getId());
+
+        NoteChangesDto changes = fixture.noteService.getChangesSince(USER, note.getSeq(), 50);
+        assertThat(changes.getDeletedIds()).containsExactly(note.getId());
+        assertThat(fixture.noteSequence.horizon(USER)).isEqualTo(changes.getLatestSeq() + 1);
+    }
+
+    @Test
+    void abandonedSeqStopsBlockingAfterTheLease() {
+        fixture.createNote("first", "first content");
+        long abandoned = fixture.noteSequence.next(USER);
+        assertThat(fixture.noteSequence.horizon(USER)).isEqualTo(abandoned);
+
+        NoteSequence lapsed = new NoteSequence(fixture.mongoTemplate, 0, 600_000);
+        assertThat(lapsed.horizon(USER)).isEqualTo(abandoned + 1);
+    }
+
+    @Test
+    void backfillRunsOncePerDatabase() {
+        Note old = fixture.noteRepository.save(new Note("old", "old content", USER));
+        fixture.noteSequence.backfill();
+        assertThat(fixture.noteRepository.findById(old.getId()).orElseThrow().getSeq()).isEqualTo(1L);
+
+        // Another replica starting later finds the marker closed and leaves the notes alone
+        Note later = fixture.noteRepository.save(new Note("later", "later content", USER));
+        new NoteSequence(fixture.mongoTemplate, 30_000, 600_000).backfill();
+        assertThat(fixture.noteRepository.findById(later.getId()).orElseThrow().getSeq()).isNull();
+    }
+}
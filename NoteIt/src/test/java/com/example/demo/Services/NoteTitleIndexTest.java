@@ -0,0 +1,96 @@
+package com.example.demo.Services;
+
+import com.example.demo.Dtos.NoteSuggestionDto;
+import com.example.demo.Entities.Note;
+import com.example.demo.Repo.mongo.NoteRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NoteTitleIndexTest {
+
+    private static final String USER = "user-1";
+
+    private final NoteRepository noteRepository = mock(NoteRepository.class);
+
+    @Test
+    void prefixMatchesWordsTitlesAndCategories() {
+        when(noteRepository.findTitlesByUserId(USER)).thenReturn(List.of(
+                note("1", "Weekly grocery list", "home"),
+                note("2", "Groceries for the party", "events"),
+                note("3", "Quarterly review", "work")));
+        NoteTitleIndex index = new NoteTitleIndex(noteRepository, 60_000, 60_000);
+
+        assertThat(ids(index.suggest(USER, "gro", 10))).containsExactlyInAnyOrder("1", "2");
+        assertThat(ids(index.suggest(USER, "weekly gr", 10))).containsExactly("1");
+        assertThat(ids(index.suggest(USER, "WORK", 10))).containsExactly("3");
+        assertThat(index.suggest(USER, "gro", 1)).hasSize(1);
+    }
+
+    @Test
+    void retitledAndRemovedNotesLeaveNoStaleTerms() {
+        when(noteRepository.findTitlesByUserId(USER)).thenReturn(List.of(note("1", "Weekly grocery list", null)));
+        NoteTitleIndex index = new NoteTitleIndex(noteRepository, 60_000, 60_000);
+        index.suggest(USER, "w", 10);
+
+        index.put(note("1", "Monthly budget", null));
+        assertThat(index.suggest(USER, "gro", 10)).isEmpty();
+        assertThat(index.suggest(USER, "budget", 10)).extracting(NoteSuggestionDto::getTitle).containsExactly("Monthly budget");
+
+        index.remove(USER, "1");
+        assertThat(index.suggest(USER, "budget", 10)).isEmpty();
+    }
+
+    @Test
+    void writeDuringLoadWinsOverTheLoadedSnapshot() {
+        NoteTitleIndex index = new NoteTitleIndex(noteRepository, 60_000, 60_000);
+        when(noteRepository.findTitlesByUserId(USER)).thenAnswer(invocation -> {
+            // Another request renames the note after the load read it
+            index.put(note("1", "Renamed", null));
+            return List.of(note("1", "Original", null), note("2", "Other", null));
+        });
+
+        assertThat(ids(index.suggest(USER, "original", 10))).isEmpty();
+        assertThat(ids(index.suggest(USER, "renamed", 10))).containsExactly("1");
+        assertThat(ids(index.suggest(USER, "other", 10))).containsExactly("2");
+    }
+
+    @Test
+    void notesWithoutOwnerAreIgnored() {
+        NoteTitleIndex index = new NoteTitleIndex(noteRepository, 60_000, 60_000);
+        Note orphan = new Note("Orphan", null, null);
+        orphan.setId("1");
+
+        index.put(orphan);
+        index.remove(null, "1");
+    }
+
+    @Test
+    void indexIsReloadedOnceItReachesItsMaxAge() {
+        when(noteRepository.findTitlesByUserId(USER)).thenReturn(List.of(note("1", "First", null)));
+        NoteTitleIndex index = new NoteTitleIndex(noteRepository, 60_000, -1);
+        index.suggest(USER, "first", 10);
+
+        index.evictIdle();
+        index.suggest(USER, "first", 10);
+
+        verify(noteRepository, times(2)).findTitlesByUserId(USER);
+    }
+
+    private static Note note(String id, String title, String category) {
+        Note note = new Note(title, null, USER);
+        note.setId(id);
+        note.setCategory(category);
+        return note;
+    }
+
+    private static List<String> ids(List<NoteSuggestionDto> suggestions) {
+        return suggestions.stream().map(NoteSuggestionDto::getId).toList();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.Services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRefreshCoordinatorTest {
+
+    private final AuthServiceImpl authService = mock(AuthServiceImpl.class);
+    private final TokenRefreshCoordinator coordinator = new TokenRefreshCoordinator(authService, 60_000);
+
+    @Test
+    void tokenIsReusedWithinTheWindow() {
+        when(authService.refreshAT(1L)).thenReturn("first", "second");
+
+        assertThat(coordinator.refresh(1L)).isEqualTo("first");
+        assertThat(coordinator.refresh(1L)).isEqualTo("first");
+
+        coordinator.evict(1L);
+        assertThat(coordinator.refresh(1L)).isEqualTo("second");
+    }
+
+    @Test
+    void refreshRunningDuringAnEvictionDoesNotCacheItsToken() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(authService.refreshAT(1L)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "minted-before-logout";
+        }).thenReturn("minted-after-logout");
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> coordinator.refresh(1L));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(2); // the eviction lands strictly after the refresh started
+        coordinator.evict(1L);
+        release.countDown();
+
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("minted-before-logout");
+        assertThat(coordinator.refresh(1L)).isEqualTo("minted-after-logout");
+        verify(authService, times(2)).refreshAT(1L);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.Util;
+
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtKeyRegistryTest {
+
+    private static final String DEFAULT_KEY = "6f1d2c3b4a5968778695a4b3c2d1e0f11f2e3d4c5b6a79880716253443526170";
+    private static final String NEXT_KEY = "0a1b2c3d4e5f60718293a4b5c6d7e8f90a1b2c3d4e5f60718293a4b5c6d7e8f9";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void retiringAKeyClearsTheVerifiedTokenCache() throws IOException {
+        Path keys = dir.resolve("jwt-keys.properties");
+        write(keys, "keys.next=" + NEXT_KEY + "\nactive=next\n", 1_000);
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, new SimpleMeterRegistry());
+        JwtKeyRegistry registry = registry(keys, cache);
+        cache.put("token", new VerifiedToken(VerifiedToken.Status.VALID, 1L, "ada", "ada@example.com",
+                new Date(System.currentTimeMillis() + 60_000)));
+
+        // Adding a key keeps what was verified so far
+        write(keys, "keys.next=" + NEXT_KEY + "\nkeys.later=" + DEFAULT_KEY + "\nactive=next\n", 2_000);
+        registry.reloadKeysFile();
+        assertThat(cache.size()).isEqualTo(1);
+
+        write(keys, "active=default\n", 3_000);
+        registry.reloadKeysFile();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void tokensVerifyWithTheKeyNamedByTheirKid() throws IOException {
+        Path keys = dir.resolve("jwt-keys.properties");
+        write(keys, "keys.next=" + NEXT_KEY + "\nactive=next\n", 1_000);
+        JwtKeyRegistry registry = registry(keys, new VerifiedTokenCache(100, new SimpleMeterRegistry()));
+
+        String token = registry.sign(Jwts.builder().subject("42"));
+
+        assertThat(registry.parser().parseSignedClaims(token).getHeader().getKeyId()).isEqualTo("next");
+        assertThat(registry.parser().parseSignedClaims(token).getPayload().getSubject()).isEqualTo("42");
+    }
+
+    private static JwtKeyRegistry registry(Path keys, VerifiedTokenCache cache) {
+        JwtKeyRegistry registry = new JwtKeyRegistry();
+        ReflectionTestUtils.setField(registry, "jwtSecretKey", DEFAULT_KEY);
+        ReflectionTestUtils.setField(registry, "keysFile", keys.toString());
+        ReflectionTestUtils.setField(registry, "verifiedTokenCache", cache);
+        registry.init();
+        return registry;
+    }
+
+    // Explicit modification times, so each rewrite is seen as a change
+    private static void write(Path file, String content, long modifiedMillis) throws IOException {
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modifiedMillis));
+    }
+}
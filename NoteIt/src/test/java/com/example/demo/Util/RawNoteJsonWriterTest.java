@@ -0,0 +1,43 @@
+package com.example.demo.Util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RawNoteJsonWriterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void noteStoredWithoutVersionIsWrittenAsVersionZero() throws IOException {
+        JsonNode json = write("{\"_id\": \"n1\", \"title\": \"Groceries\", \"userId\": \"42\"}");
+
+        assertThat(json.get("version").isNumber()).isTrue();
+        assertThat(json.get("version").asLong()).isZero();
+        assertThat(json.get("seq").isNull()).isTrue();
+        assertThat(json.get("archived").asBoolean()).isFalse();
+    }
+
+    @Test
+    void storedNumbersArePassedThrough() throws IOException {
+        JsonNode json = write("{\"_id\": \"n1\", \"version\": {\"$numberLong\": \"7\"}, \"seq\": 12, \"title\": null}");
+
+        assertThat(json.get("version").asLong()).isEqualTo(7);
+        assertThat(json.get("seq").asLong()).isEqualTo(12);
+        assertThat(json.get("title").isNull()).isTrue();
+    }
+
+    private JsonNode write(String bson) throws IOException {
+        StringWriter out = new StringWriter();
+        try (var gen = mapper.getFactory().createGenerator(out)) {
+            RawNoteJsonWriter.write(RawBsonDocument.parse(bson), gen);
+        }
+        return mapper.readTree(out.toString());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.Util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    @Test
+    void validTokenIsServedFromCacheUntilItExpires() throws InterruptedException {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, new SimpleMeterRegistry());
+        VerifiedToken shortLived = valid(System.currentTimeMillis() + 50);
+
+        cache.put("token", shortLived);
+        assertThat(cache.get("token")).isSameAs(shortLived);
+
+        Thread.sleep(60);
+        assertThat(cache.get("token")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void invalidTokensAreNotCached() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, new SimpleMeterRegistry());
+
+        cache.put("token", VerifiedToken.INVALID);
+
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    void overflowTrimsBelowTheCap() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, new SimpleMeterRegistry());
+        long exp = System.currentTimeMillis() + 60_000;
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put("token-" + i, valid(exp));
+            assertThat(cache.size()).isLessThanOrEqualTo(100);
+        }
+    }
+
+    @Test
+    void overflowKeepsRecentlyUsedEntries() throws InterruptedException {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, new SimpleMeterRegistry());
+        long exp = System.currentTimeMillis() + 60_000;
+        for (int i = 0; i < 100; i++) {
+            cache.put("token-" + i, valid(exp));
+        }
+
+        Thread.sleep(5);
+        assertThat(cache.get("token-0")).isNotNull();
+        cache.put("token-100", valid(exp));
+
+        assertThat(cache.size()).isLessThanOrEqualTo(90);
+        assertThat(cache.get("token-0")).as("used just before the trim").isNotNull();
+        assertThat(cache.get("token-100")).as("added just before the trim").isNotNull();
+    }
+
+    @Test
+    void revokingAUserDropsOnlyTheirTokens() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, new SimpleMeterRegistry());
+        long exp = System.currentTimeMillis() + 60_000;
+        cache.put("ada", valid(exp));
+        cache.put("grace", new VerifiedToken(VerifiedToken.Status.VALID, 2L, "grace", "grace@example.com", new Date(exp)));
+
+        cache.invalidateUser(1L);
+
+        assertThat(cache.get("ada")).isNull();
+        assertThat(cache.get("grace")).isNotNull();
+    }
+
+    private static VerifiedToken valid(long expiresAt) {
+        return new VerifiedToken(VerifiedToken.Status.VALID, 1L, "ada", "ada@example.com", new Date(expiresAt));
+    }
+}
@@ -31,8 +31,8 @@ export interface Note {
   title: string;
   content: string;
   userId: string;
-  createdAt?: string;
-  updatedAt?: string;
+  createdAt?: number; // epoch millis
+  updatedAt?: number; // epoch millis
   category?: string;
   isArchived?: boolean;
 }
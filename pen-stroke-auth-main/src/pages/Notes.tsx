@@ -151,10 +151,10 @@ const Notes = () => {
       )
     : notes;
 
-  const formatDate = (dateString: string | undefined) => {
-    if (!dateString) return 'Unknown';
+  const formatDate = (epochMillis: number | undefined) => {
+    if (!epochMillis) return 'Unknown';
     try {
-      return new Date(dateString).toLocaleDateString('en-US', {
+      return new Date(epochMillis).toLocaleDateString('en-US', {
         year: 'numeric',
         month: 'short',
         day: 'numeric',